@@ -0,0 +1,79 @@
+package com.projecttracker.benchmark;
+
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic in-memory dataset for the benchmarks. Milestones are spread over projects of
+ * {@link #MILESTONES_PER_PROJECT} each, and every project's denormalized counters are filled in
+ * the same way MilestoneService would maintain them.
+ */
+public class BenchmarkData {
+    
+    public static final int MILESTONES_PER_PROJECT = 10;
+    
+    public final List<User> users = new ArrayList<>();
+    public final List<Project> projects = new ArrayList<>();
+    public final List<Milestone> milestones = new ArrayList<>();
+    public final User client;
+    public final User manager;
+    
+    public BenchmarkData(int milestoneCount) {
+        client = user(1L, "client", User.Role.CLIENT);
+        manager = user(2L, "manager", User.Role.MANAGER);
+        users.add(user(3L, "admin", User.Role.ADMIN));
+        
+        int projectCount = Math.max(1, milestoneCount / MILESTONES_PER_PROJECT);
+        for (int p = 0; p < projectCount; p++) {
+            Project project = new Project("Project " + p, "Synthetic project " + p, client, manager);
+            project.setId((long) p + 1);
+            project.setStatus(Project.ProjectStatus.values()[p % Project.ProjectStatus.values().length]);
+            project.setStartDate(LocalDate.of(2024, 1, 1).plusDays(p % 365));
+            project.setEndDate(project.getStartDate().plusMonths(6));
+            project.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+            project.setUpdatedAt(LocalDateTime.of(2024, 6, 1, 9, 0));
+            project.setMilestones(new ArrayList<>());
+            projects.add(project);
+        }
+        
+        for (int m = 0; m < milestoneCount; m++) {
+            Project project = projects.get(Math.min(m / MILESTONES_PER_PROJECT, projectCount - 1));
+            Milestone milestone = new Milestone("Milestone " + m, "Deliverable number " + m,
+                    project.getMilestones().size() + 1, project);
+            milestone.setId((long) m + 1);
+            milestone.setStatus(Milestone.MilestoneStatus.values()[m % Milestone.MilestoneStatus.values().length]);
+            milestone.setDueDate(LocalDate.of(2024, 3, 1).plusDays(m % 180));
+            if (milestone.getStatus() == Milestone.MilestoneStatus.COMPLETED) {
+                milestone.setCompletedAt(LocalDateTime.of(2024, 2, 1, 12, 0));
+            }
+            project.getMilestones().add(milestone);
+            milestones.add(milestone);
+            
+            project.setTotalMilestones(project.getTotalMilestones() + 1);
+            switch (milestone.getStatus()) {
+                case COMPLETED:
+                    project.setCompletedMilestones(project.getCompletedMilestones() + 1);
+                    break;
+                case IN_PROGRESS:
+                    project.setInProgressMilestones(project.getInProgressMilestones() + 1);
+                    break;
+                default:
+                    project.setNotStartedMilestones(project.getNotStartedMilestones() + 1);
+                    break;
+            }
+        }
+    }
+    
+    private User user(Long id, String username, User.Role role) {
+        User user = new User(username, "{noop}password", username + "@example.com", role);
+        user.setId(id);
+        users.add(user);
+        return user;
+    }
+}
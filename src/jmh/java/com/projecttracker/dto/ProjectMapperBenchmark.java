@@ -0,0 +1,62 @@
+package com.projecttracker.dto;
+
+import com.projecttracker.benchmark.BenchmarkData;
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project listing cost: DTO mapping, and progress from the denormalized counters compared with
+ * the previous scan over each project's milestone collection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectMapperBenchmark {
+    
+    @Param({"10", "1000", "100000"})
+    private int milestoneCount;
+    
+    private List<Project> projects;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        projects = new BenchmarkData(milestoneCount).projects;
+    }
+    
+    @Benchmark
+    public List<ProjectDTO> toDTOList() {
+        return ProjectMapper.toDTOList(projects);
+    }
+    
+    @Benchmark
+    public double progressFromCounters() {
+        double sum = 0;
+        for (Project project : projects) {
+            sum += project.getProgressPercentage();
+        }
+        return sum;
+    }
+    
+    @Benchmark
+    public double progressFromMilestoneCollection() {
+        double sum = 0;
+        for (Project project : projects) {
+            List<Milestone> milestones = project.getMilestones();
+            if (milestones.isEmpty()) {
+                continue;
+            }
+            long completedCount = milestones.stream()
+                    .filter(m -> m.getStatus() == Milestone.MilestoneStatus.COMPLETED)
+                    .count();
+            sum += (double) completedCount / milestones.size() * 100;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,56 @@
+package com.projecttracker.service.report;
+
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.projecttracker.benchmark.BenchmarkData;
+import com.projecttracker.entity.Project;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * iText HTML-to-PDF conversion of a pre-rendered project report. Large inputs take seconds per
+ * conversion, so this runs in single-shot mode; narrow the sizes with e.g. -p milestoneCount=10,1000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PdfConversionBenchmark {
+    
+    @Param({"10", "1000", "100000"})
+    private int milestoneCount;
+    
+    private ReportService reportService;
+    private String projectHtml;
+    
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        BenchmarkData data = new BenchmarkData(milestoneCount);
+        Project project = data.projects.get(0);
+        reportService = ReportServiceBenchmark.newReportService(project, data.milestones);
+        projectHtml = reportService.generateProjectReportHtml(project, data.milestones);
+    }
+    
+    @Benchmark
+    public byte[] projectReportPdf() throws IOException {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        reportService.convertToPdf(projectHtml, pdf);
+        return pdf.toByteArray();
+    }
+    
+    /**
+     * Baseline for {@link #projectReportPdf}: a fresh ConverterProperties, so HtmlConverter
+     * discovers the fonts again for every document.
+     */
+    @Benchmark
+    public byte[] projectReportPdfFreshProperties() {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        HtmlConverter.convertToPdf(projectHtml, pdf, new ConverterProperties());
+        return pdf.toByteArray();
+    }
+}
@@ -0,0 +1,131 @@
+package com.projecttracker.service.report;
+
+import com.projecttracker.benchmark.BenchmarkData;
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+import com.projecttracker.service.MilestoneService;
+import com.projecttracker.service.ProjectService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * HTML rendering and CSV export of the reports over in-memory entities. A single project carries
+ * every milestone for the project report and CSV; the client/manager/admin reports list all
+ * projects of {@link BenchmarkData}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportServiceBenchmark {
+    
+    @Param({"10", "1000", "100000"})
+    private int milestoneCount;
+    
+    private BenchmarkData data;
+    private Project project;
+    private ReportService reportService;
+    private Map<User.Role, Long> roleCounts;
+    private Map<Project.ProjectStatus, Long> statusCounts;
+    
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        data = new BenchmarkData(milestoneCount);
+        project = data.projects.get(0);
+        reportService = newReportService(project, data.milestones);
+        // The grouped count queries the admin report runs, precomputed from the dataset
+        roleCounts = new EnumMap<>(User.Role.class);
+        data.users.forEach(user -> roleCounts.merge(user.getRole(), 1L, Long::sum));
+        statusCounts = new EnumMap<>(Project.ProjectStatus.class);
+        data.projects.forEach(p -> statusCounts.merge(p.getStatus(), 1L, Long::sum));
+    }
+    
+    @Benchmark
+    public String projectReportHtml() {
+        return reportService.generateProjectReportHtml(project, data.milestones);
+    }
+    
+    /**
+     * Baseline for {@link #projectReportHtml}: the layouts are read and compiled on every call
+     * instead of once per class.
+     */
+    @Benchmark
+    public String projectReportHtmlCompilingTemplates() {
+        return reportService.generateProjectReportHtml(project, data.milestones,
+                ReportTemplate.load("reports/project-report.html"),
+                ReportTemplate.load("reports/project-report-row.html"));
+    }
+    
+    @Benchmark
+    public String clientReportHtml() {
+        return reportService.generateClientReportHtml(data.client, data.projects);
+    }
+    
+    @Benchmark
+    public String managerReportHtml() {
+        return reportService.generateManagerReportHtml(data.manager, data.projects);
+    }
+    
+    @Benchmark
+    public String adminReportHtml() {
+        return reportService.generateAdminReportHtml(data.projects, roleCounts, statusCounts);
+    }
+    
+    @Benchmark
+    public void projectCsv() throws IOException {
+        reportService.writeProjectCSV(project.getId(), OutputStream.nullOutputStream());
+    }
+    
+    /**
+     * Wires a ReportService to stub services that serve the in-memory dataset, standing in for
+     * the repositories and the persistence context.
+     */
+    static ReportService newReportService(Project project, List<Milestone> milestones) throws ReflectiveOperationException {
+        ProjectService projectService = new ProjectService() {
+            @Override
+            public Optional<Project> findById(Long id) {
+                return Optional.of(project);
+            }
+        };
+        MilestoneService milestoneService = new MilestoneService() {
+            @Override
+            public List<Milestone> findByProject(Project ignored) {
+                return milestones;
+            }
+            
+            @Override
+            public Stream<Milestone> streamByProjectId(Long projectId) {
+                return milestones.stream();
+            }
+        };
+        EntityManager entityManager = (EntityManager) Proxy.newProxyInstance(
+                EntityManager.class.getClassLoader(), new Class<?>[] {EntityManager.class},
+                (proxy, method, args) -> null);
+        
+        ReportService reportService = new ReportService();
+        inject(reportService, "projectService", projectService);
+        inject(reportService, "milestoneService", milestoneService);
+        inject(reportService, "entityManager", entityManager);
+        return reportService;
+    }
+    
+    private static void inject(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,71 @@
+package com.projecttracker.loadtest;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects raw latency samples per endpoint and reports percentiles once the run is over.
+ */
+public class LatencyRecorder {
+    
+    private final Map<String, Samples> samplesByEndpoint = new ConcurrentHashMap<>();
+    
+    public void record(String endpoint, long nanos, boolean error) {
+        samplesByEndpoint.computeIfAbsent(endpoint, e -> new Samples()).add(nanos, error);
+    }
+    
+    public void printReport(PrintStream out, Duration duration) {
+        double seconds = duration.toMillis() / 1000.0;
+        out.printf("%n%-42s %8s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        
+        long totalRequests = 0;
+        for (Map.Entry<String, Samples> entry : new TreeMap<>(samplesByEndpoint).entrySet()) {
+            long[] sorted = entry.getValue().sorted();
+            totalRequests += sorted.length;
+            out.printf("%-42s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), sorted.length, entry.getValue().errors(), sorted.length / seconds,
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                    sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6);
+        }
+        out.printf("%nTotal: %d requests, %.1f req/s%n", totalRequests, totalRequests / seconds);
+    }
+    
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+    
+    private static class Samples {
+        private long[] values = new long[1024];
+        private int size;
+        private long errors;
+        
+        synchronized void add(long nanos, boolean error) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+            if (error) {
+                errors++;
+            }
+        }
+        
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+        
+        synchronized long errors() {
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.projecttracker.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the dashboard traffic mix against a running instance and prints per-endpoint latency
+ * percentiles and throughput. Each virtual user logs in as its own seeded account (see
+ * LoadTestDataSeeder), because the app allows one session per user.
+ *
+ * <pre>
+ * --base-url URL        target instance (default http://localhost:8080)
+ * --concurrency N       virtual users (default 20)
+ * --duration SECONDS    measured run time (default 60)
+ * --warmup SECONDS      unmeasured warm-up before the run (default 10)
+ * --clients N           seeded clients available (default 50)
+ * --managers N          seeded managers available (default 10)
+ * --mix C:M:A           client:manager:admin virtual user ratio (default 6:3:1)
+ * --session-length N    scenario iterations per login (default 20)
+ * --think-ms N          pause between scenario iterations (default 0)
+ * --password P          password of the seeded accounts (default password123)
+ * </pre>
+ */
+public class LoadTestDriver {
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        URI baseUri = URI.create(options.getOrDefault("base-url", "http://localhost:8080"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "20"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "50"));
+        int managers = Integer.parseInt(options.getOrDefault("managers", "10"));
+        String[] mix = options.getOrDefault("mix", "6:3:1").split(":");
+        int sessionLength = Integer.parseInt(options.getOrDefault("session-length", "20"));
+        long thinkMillis = Long.parseLong(options.getOrDefault("think-ms", "0"));
+        String password = options.getOrDefault("password", "password123");
+        
+        List<String> usernames = assignAccounts(concurrency, clients, managers,
+                Integer.parseInt(mix[0]), Integer.parseInt(mix[1]), Integer.parseInt(mix[2]));
+        
+        LatencyRecorder recorder = new LatencyRecorder();
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long deadline = warmupEnd + duration.toNanos();
+        
+        System.out.printf("Running %d virtual users against %s: %ds warm-up, %ds measured%n",
+                concurrency, baseUri, warmup.getSeconds(), duration.getSeconds());
+        
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        for (String username : usernames) {
+            pool.submit(new VirtualUser(baseUri, username, password, recorder,
+                    warmupEnd, deadline, sessionLength, thinkMillis));
+        }
+        pool.shutdown();
+        pool.awaitTermination(duration.plus(warmup).plusMinutes(5).toMillis(), TimeUnit.MILLISECONDS);
+        
+        recorder.printReport(System.out, duration);
+    }
+    
+    /**
+     * Hands out distinct accounts in mix order (e.g. 6 clients, 3 managers, 1 admin, repeat).
+     * Roles that run out of seeded accounts are skipped rather than sharing a session.
+     */
+    private static List<String> assignAccounts(int concurrency, int clients, int managers,
+                                               int clientWeight, int managerWeight, int adminWeight) {
+        List<String> pattern = new ArrayList<>();
+        for (int i = 0; i < clientWeight; i++) pattern.add("client");
+        for (int i = 0; i < managerWeight; i++) pattern.add("manager");
+        for (int i = 0; i < adminWeight; i++) pattern.add("admin");
+        
+        Map<String, Integer> available = Map.of("client", clients, "manager", managers, "admin", 1);
+        Map<String, Integer> used = new HashMap<>();
+        List<String> usernames = new ArrayList<>();
+        int exhausted = 0;
+        for (int i = 0; usernames.size() < concurrency && exhausted < pattern.size(); i++) {
+            String role = pattern.get(i % pattern.size());
+            int next = used.getOrDefault(role, 0) + 1;
+            if (next > available.get(role)) {
+                exhausted++;
+                continue;
+            }
+            exhausted = 0;
+            used.put(role, next);
+            usernames.add(role + next);
+        }
+        if (usernames.size() < concurrency) {
+            System.out.printf("Only %d seeded accounts available, running %d virtual users%n",
+                    usernames.size(), usernames.size());
+        }
+        return usernames;
+    }
+    
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,214 @@
+package com.projecttracker.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One logged-in browser session replaying the scenario for its role until the deadline.
+ * Requests made before the warm-up ends are executed but not recorded.
+ */
+public class VirtualUser implements Runnable {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    private final URI baseUri;
+    private final String username;
+    private final String password;
+    private final LatencyRecorder recorder;
+    private final long warmupEnd;
+    private final long deadline;
+    private final int sessionLength;
+    private final long thinkMillis;
+    private final HttpClient client;
+    
+    private Long userId;
+    
+    public VirtualUser(URI baseUri, String username, String password, LatencyRecorder recorder,
+                       long warmupEnd, long deadline, int sessionLength, long thinkMillis) {
+        this.baseUri = baseUri;
+        this.username = username;
+        this.password = password;
+        this.recorder = recorder;
+        this.warmupEnd = warmupEnd;
+        this.deadline = deadline;
+        this.sessionLength = sessionLength;
+        this.thinkMillis = thinkMillis;
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+    
+    @Override
+    public void run() {
+        while (System.nanoTime() < deadline) {
+            try {
+                if (!login()) {
+                    Thread.sleep(1000);
+                    continue;
+                }
+                for (int i = 0; i < sessionLength && System.nanoTime() < deadline; i++) {
+                    runScenario();
+                    if (thinkMillis > 0) {
+                        Thread.sleep(thinkMillis);
+                    }
+                }
+                send("POST /auth/logout", HttpRequest.newBuilder(baseUri.resolve("/auth/logout"))
+                        .POST(HttpRequest.BodyPublishers.noBody()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                // Already recorded as an error; start a fresh session
+            }
+        }
+    }
+    
+    private boolean login() throws IOException, InterruptedException {
+        String body = MAPPER.writeValueAsString(Map.of("username", username, "password", password));
+        HttpResponse<String> response = send("POST /auth/login", json(HttpRequest.newBuilder(baseUri.resolve("/auth/login")))
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        userId = MAPPER.readTree(response.body()).path("userId").asLong();
+        return true;
+    }
+    
+    private void runScenario() throws IOException, InterruptedException {
+        if (username.startsWith("client")) {
+            clientScenario();
+        } else if (username.startsWith("manager")) {
+            managerScenario();
+        } else {
+            adminScenario();
+        }
+    }
+    
+    private void clientScenario() throws IOException, InterruptedException {
+        get("GET /client/dashboard", "/client/dashboard");
+        List<Long> projectIds = dashboardProjectIds();
+        get("GET /api/projects/managers", "/api/projects/managers");
+        if (projectIds.isEmpty()) {
+            return;
+        }
+        Long projectId = pick(projectIds);
+        get("GET /api/projects/{id}", "/api/projects/" + projectId);
+        get("GET /api/milestones/project/{id}", "/api/milestones/project/" + projectId);
+        if (chance(0.10)) {
+            get("GET /api/reports/project/{id}", "/api/reports/project/" + projectId);
+        }
+    }
+    
+    private void managerScenario() throws IOException, InterruptedException {
+        get("GET /manager/dashboard", "/manager/dashboard");
+        List<Long> projectIds = dashboardProjectIds();
+        if (!projectIds.isEmpty()) {
+            Long projectId = pick(projectIds);
+            Map<String, Object> milestone = Map.of(
+                    "title", "Load test milestone",
+                    "description", "Created by the load-test driver",
+                    "status", "NOT_STARTED",
+                    "dueDate", LocalDate.now().plusDays(30).toString(),
+                    "project", Map.of("id", projectId));
+            HttpResponse<String> created = sendJson("POST /api/milestones", "/api/milestones", "POST", milestone);
+            if (created.statusCode() == 200) {
+                JsonNode createdMilestone = MAPPER.readTree(created.body()).path("milestone");
+                long milestoneId = createdMilestone.path("id").asLong();
+                // A full replace must name the version it was based on
+                send("PUT /api/milestones/{id}", json(HttpRequest.newBuilder(baseUri.resolve("/api/milestones/" + milestoneId)))
+                        .header("If-Match", "\"" + createdMilestone.path("version").asLong() + "\"")
+                        .PUT(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(
+                                Map.of("title", "Load test milestone", "status", "IN_PROGRESS")))));
+                // Move it to the front of the roadmap
+                sendJson("PUT /api/milestones/project/{id}/order", "/api/milestones/project/" + projectId + "/order", "PUT",
+                        Map.of("milestoneIds", List.of(milestoneId)));
+                send("DELETE /api/milestones/{id}", HttpRequest.newBuilder(baseUri.resolve("/api/milestones/" + milestoneId))
+                        .DELETE());
+            }
+        }
+        if (chance(0.05)) {
+            get("GET /api/reports/manager/{id}", "/api/reports/manager/" + userId);
+        }
+    }
+    
+    private void adminScenario() throws IOException, InterruptedException {
+        get("GET /admin/dashboard", "/admin/dashboard");
+        get("GET /api/dashboard", "/api/dashboard");
+        get("GET /api/users", "/api/users");
+        get("GET /api/projects", "/api/projects");
+        if (chance(0.05)) {
+            get("GET /api/reports/admin/all", "/api/reports/admin/all");
+        }
+    }
+    
+    /**
+     * Mirrors the dashboard page: the summary, then the first page of the user's projects.
+     */
+    private List<Long> dashboardProjectIds() throws IOException, InterruptedException {
+        get("GET /api/dashboard", "/api/dashboard");
+        HttpResponse<String> response = get("GET /api/projects", "/api/projects");
+        List<Long> ids = new ArrayList<>();
+        if (response.statusCode() == 200) {
+            for (JsonNode project : MAPPER.readTree(response.body()).path("items")) {
+                ids.add(project.path("id").asLong());
+            }
+        }
+        return ids;
+    }
+    
+    private HttpResponse<String> get(String label, String path) throws IOException, InterruptedException {
+        return send(label, HttpRequest.newBuilder(baseUri.resolve(path)).GET());
+    }
+    
+    private HttpResponse<String> sendJson(String label, String path, String method, Object payload)
+            throws IOException, InterruptedException {
+        String body = MAPPER.writeValueAsString(payload);
+        return send(label, json(HttpRequest.newBuilder(baseUri.resolve(path)))
+                .method(method, HttpRequest.BodyPublishers.ofString(body)));
+    }
+    
+    private static HttpRequest.Builder json(HttpRequest.Builder builder) {
+        return builder.header("Content-Type", "application/json");
+    }
+    
+    private HttpResponse<String> send(String label, HttpRequest.Builder request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request.timeout(Duration.ofSeconds(60)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            record(label, start, response.statusCode() >= 400);
+            return response;
+        } catch (IOException e) {
+            record(label, start, true);
+            throw e;
+        }
+    }
+    
+    private void record(String label, long start, boolean error) {
+        if (start >= warmupEnd) {
+            recorder.record(label, System.nanoTime() - start, error);
+        }
+    }
+    
+    private static Long pick(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+    
+    private static boolean chance(double probability) {
+        return ThreadLocalRandom.current().nextDouble() < probability;
+    }
+}
@@ -2,8 +2,10 @@ package com.projecttracker;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ProjectTrackerApplication {
     public static void main(String[] args) {
         SpringApplication.run(ProjectTrackerApplication.class, args);
@@ -0,0 +1,92 @@
+package com.projecttracker.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Strong ETags for JSON endpoints, built from version data read before the response body, so an
+ * unchanged resource is answered with 304 without loading entities or serializing anything.
+ * <p>
+ * Each call is counted in {@code http.conditional.requests}, tagged with the endpoint and a
+ * result: {@code not_modified} (304), {@code modified} (the client's ETag was stale) or
+ * {@code unconditional} (no {@code If-None-Match}). The hit rate is not_modified over the total.
+ * <p>
+ * Updates are made conditional with {@code If-Match} holding the entity's {@code @Version}, as
+ * sent in its ETag by the single-entity responses and in the {@code version} field of the JSON.
+ */
+@Component
+public class ConditionalRequestSupport {
+
+    /**
+     * Browsers may keep the response but must revalidate it every time. Without an explicit
+     * Cache-Control, Spring Security sends no-store and nothing would ever be revalidated.
+     */
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * A strong ETag that changes whenever any of the version parts does.
+     */
+    public String etag(Object... versionParts) {
+        StringBuilder version = new StringBuilder();
+        for (Object part : versionParts) {
+            version.append(part).append('|');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(version.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Whether the client's {@code If-None-Match} already holds this ETag, in which case the caller
+     * answers 304 without a body.
+     */
+    public boolean isNotModified(WebRequest request, String endpoint, String etag) {
+        boolean conditional = request.getHeader("If-None-Match") != null;
+        boolean notModified = conditional && request.checkNotModified(etag);
+        String result = notModified ? "not_modified" : conditional ? "modified" : "unconditional";
+        meterRegistry.counter("http.conditional.requests", "endpoint", endpoint, "result", result).increment();
+        return notModified;
+    }
+
+    /**
+     * The ETag of one version of an entity; {@link #parseIfMatch} reads it back.
+     */
+    public String versionTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The version named by an {@code If-Match} header, or {@code null} if the header is absent or
+     * {@code *}. Either way the update names no version, which only a status-only merge accepts.
+     *
+     * @throws IllegalArgumentException if the header is not a single version tag
+     */
+    public Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("If-Match must be a quoted version");
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must be a quoted version");
+        }
+    }
+}
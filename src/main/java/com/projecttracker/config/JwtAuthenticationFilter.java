@@ -0,0 +1,187 @@
+package com.projecttracker.config;
+
+import com.projecttracker.entity.User;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Authenticates requests from the token issued at login ({@code Authorization: Bearer ...} or
+ * the {@value JwtService#COOKIE_NAME} cookie) when {@code auth.mode=jwt}. Nothing is looked up:
+ * the user's id, username and role come from the verified token.
+ * <p>
+ * Controllers and templates read the signed-in user from the {@code "user"} session attribute, so
+ * the request is wrapped to expose a session that lives only as long as the request and holds
+ * that user. No HTTP session is ever created on the server.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+
+    public JwtAuthenticationFilter(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = resolveToken(request);
+        User user = token != null ? jwtService.parseToken(token) : null;
+        if (user != null) {
+            UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                    user.getUsername(), null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole())));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+        filterChain.doFilter(new TokenSessionRequest(request, user), response);
+    }
+
+    private static String resolveToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            return header.substring(BEARER_PREFIX.length());
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (JwtService.COOKIE_NAME.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static class TokenSessionRequest extends HttpServletRequestWrapper {
+
+        private TokenSession session;
+
+        TokenSessionRequest(HttpServletRequest request, User user) {
+            super(request);
+            if (user != null) {
+                session = new TokenSession(request.getServletContext());
+                session.setAttribute("user", user);
+            }
+        }
+
+        @Override
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            if (session == null && create) {
+                session = new TokenSession(getServletContext());
+            }
+            return session;
+        }
+
+        @Override
+        public String changeSessionId() {
+            return getSession().getId();
+        }
+
+        @Override
+        public boolean isRequestedSessionIdValid() {
+            return false;
+        }
+    }
+
+    /**
+     * Request-scoped stand-in for an HTTP session; attributes are dropped when the request ends.
+     */
+    private static class TokenSession implements HttpSession {
+
+        private final ServletContext servletContext;
+        private final long creationTime = System.currentTimeMillis();
+        private final String id = UUID.randomUUID().toString();
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        TokenSession(ServletContext servletContext) {
+            this.servletContext = servletContext;
+        }
+
+        @Override
+        public long getCreationTime() {
+            return creationTime;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public long getLastAccessedTime() {
+            return creationTime;
+        }
+
+        @Override
+        public ServletContext getServletContext() {
+            return servletContext;
+        }
+
+        @Override
+        public void setMaxInactiveInterval(int interval) {
+        }
+
+        @Override
+        public int getMaxInactiveInterval() {
+            return 0;
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public Enumeration<String> getAttributeNames() {
+            return Collections.enumeration(attributes.keySet());
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            if (value == null) {
+                attributes.remove(name);
+            } else {
+                attributes.put(name, value);
+            }
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            attributes.remove(name);
+        }
+
+        @Override
+        public void invalidate() {
+            attributes.clear();
+        }
+
+        @Override
+        public boolean isNew() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.projecttracker.config;
+
+import com.projecttracker.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+
+/**
+ * Issues and verifies the HS256 tokens used when {@code auth.mode=jwt}. A token carries the
+ * user's id (subject), username and role, which is everything the controllers and templates read
+ * from the signed-in user, so a request is authenticated without touching the database.
+ */
+@Component
+public class JwtService {
+
+    public static final String COOKIE_NAME = "AUTH_TOKEN";
+
+    private static final String USERNAME_CLAIM = "username";
+    private static final String ROLE_CLAIM = "role";
+
+    // Shipped as the jwt.secret default before the property became mandatory
+    private static final String FORMER_DEFAULT_SECRET = "mySecretKey";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    @Value("${auth.mode:session}")
+    private String mode;
+
+    @Value("${jwt.secret:}")
+    private String secret;
+
+    @Value("${jwt.expiration}")
+    private long expirationMillis;
+
+    private SecretKey key;
+    private JwtParser parser;
+
+    /**
+     * Builds the signing key in jwt mode. Refuses to start with a missing, well-known or short
+     * secret, since anyone knowing it could sign tokens for any user and role.
+     */
+    @PostConstruct
+    void init() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (secret.isBlank() || FORMER_DEFAULT_SECRET.equals(secret)) {
+            throw new IllegalStateException("auth.mode=jwt requires jwt.secret (or JWT_SECRET) to be set "
+                    + "to a random value of at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        if (secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("jwt.secret must be at least " + MIN_SECRET_BYTES + " bytes long");
+        }
+        key = Keys.hmacShaKeyFor(sha256(secret));
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+    }
+
+    /**
+     * Whether the application runs in stateless token mode rather than with HTTP sessions.
+     */
+    public boolean isEnabled() {
+        return "jwt".equalsIgnoreCase(mode);
+    }
+
+    public long getExpirationMillis() {
+        return expirationMillis;
+    }
+
+    public String issueToken(User user) {
+        Date now = new Date();
+        return Jwts.builder()
+                .setSubject(user.getId().toString())
+                .claim(USERNAME_CLAIM, user.getUsername())
+                .claim(ROLE_CLAIM, user.getRole().name())
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + expirationMillis))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Returns the user described by a valid token, or null if the token is malformed, forged or
+     * expired. The user carries only id, username and role.
+     */
+    public User parseToken(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            String username = claims.get(USERNAME_CLAIM, String.class);
+            String role = claims.get(ROLE_CLAIM, String.class);
+            if (claims.getSubject() == null || username == null || role == null) {
+                return null;
+            }
+            User user = new User();
+            user.setId(Long.valueOf(claims.getSubject()));
+            user.setUsername(username);
+            user.setRole(User.Role.valueOf(role));
+            return user;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // HS256 needs exactly a 256-bit key; hashing folds a longer jwt.secret into one
+    private static byte[] sha256(String secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
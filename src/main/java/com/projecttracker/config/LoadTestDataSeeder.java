@@ -0,0 +1,107 @@
+package com.projecttracker.config;
+
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+import com.projecttracker.service.MilestoneService;
+import com.projecttracker.service.ProjectService;
+import com.projecttracker.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds synthetic tenants for the "loadtest" profile through the regular services, so counters
+ * and sequence numbers are populated exactly as in production. Skipped if users already exist.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements ApplicationRunner {
+    
+    private static final Logger log = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private ProjectService projectService;
+    
+    @Autowired
+    private MilestoneService milestoneService;
+    
+    @Value("${loadtest.seed.clients:50}")
+    private int clientCount;
+    
+    @Value("${loadtest.seed.managers:10}")
+    private int managerCount;
+    
+    @Value("${loadtest.seed.projects:200}")
+    private int projectCount;
+    
+    @Value("${loadtest.seed.milestones-per-project:20}")
+    private int milestonesPerProject;
+    
+    @Value("${loadtest.seed.password:password123}")
+    private String password;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!userService.findAll().isEmpty()) {
+            log.info("Users already present, skipping load test seed");
+            return;
+        }
+        
+        long start = System.currentTimeMillis();
+        Random random = new Random(42);
+        
+        createUser("admin1", User.Role.ADMIN);
+        List<User> clients = new ArrayList<>();
+        for (int i = 1; i <= clientCount; i++) {
+            clients.add(createUser("client" + i, User.Role.CLIENT));
+        }
+        List<User> managers = new ArrayList<>();
+        for (int i = 1; i <= managerCount; i++) {
+            managers.add(createUser("manager" + i, User.Role.MANAGER));
+        }
+        
+        Project.ProjectStatus[] projectStatuses = Project.ProjectStatus.values();
+        Milestone.MilestoneStatus[] milestoneStatuses = Milestone.MilestoneStatus.values();
+        for (int p = 0; p < projectCount; p++) {
+            Project project = new Project("Project " + (p + 1), "Synthetic load test project " + (p + 1),
+                    clients.get(p % clients.size()), managers.get(p % managers.size()));
+            project.setStatus(projectStatuses[random.nextInt(projectStatuses.length)]);
+            project.setStartDate(LocalDate.now().minusDays(random.nextInt(180)));
+            project.setEndDate(project.getStartDate().plusDays(90 + random.nextInt(180)));
+            project = projectService.createProject(project);
+            
+            List<Milestone> milestones = new ArrayList<>(milestonesPerProject);
+            for (int m = 0; m < milestonesPerProject; m++) {
+                Milestone milestone = new Milestone();
+                milestone.setTitle("Milestone " + (m + 1));
+                milestone.setDescription("Deliverable " + (m + 1) + " of project " + (p + 1));
+                milestone.setStatus(milestoneStatuses[random.nextInt(milestoneStatuses.length)]);
+                milestone.setDueDate(project.getStartDate().plusDays(7L * (m + 1)));
+                milestones.add(milestone);
+            }
+            milestoneService.createMilestones(project, milestones);
+        }
+        
+        log.info("Seeded {} clients, {} managers, {} projects and {} milestones in {} ms",
+                clientCount, managerCount, projectCount, projectCount * milestonesPerProject,
+                System.currentTimeMillis() - start);
+    }
+    
+    private User createUser(String username, User.Role role) {
+        return userService.createUser(new User(username, password, username + "@loadtest.local", role));
+    }
+}
@@ -0,0 +1,27 @@
+package com.projecttracker.config;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    
+    private final String endpoint;
+    private final long statements;
+    private final long budget;
+    
+    public QueryBudgetExceededException(String endpoint, long statements, long budget) {
+        super(endpoint + " issued " + statements + " SQL statements, budget is " + budget);
+        this.endpoint = endpoint;
+        this.statements = statements;
+        this.budget = budget;
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+    
+    public long getStatements() {
+        return statements;
+    }
+    
+    public long getBudget() {
+        return budget;
+    }
+}
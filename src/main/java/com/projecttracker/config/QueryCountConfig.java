@@ -0,0 +1,53 @@
+package com.projecttracker.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Hooks Hibernate so every prepared statement, entity load and lazy collection initialization
+ * is counted against the current request's {@link QueryCounter}.
+ */
+@Configuration
+public class QueryCountConfig {
+    
+    @Bean
+    public HibernatePropertiesCustomizer queryCountHibernateCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                QueryCounter.statementPrepared();
+                return sql;
+            });
+            properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(new LoadCountingIntegrator()));
+        };
+    }
+    
+    private static class LoadCountingIntegrator implements Integrator {
+        
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+            EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> QueryCounter.entityLoaded());
+            registry.appendListeners(EventType.INIT_COLLECTION,
+                    (InitializeCollectionEventListener) event -> QueryCounter.collectionFetched());
+        }
+        
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.projecttracker.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * Counts the Hibernate work done for each request and reports it three ways:
+ * X-Query-Count / X-Entity-Load-Count / X-Collection-Fetch-Count response headers, Micrometer
+ * summaries tagged by method and URI pattern, and a warning (or, with fail-on-exceed, an
+ * exception) when an endpoint goes over its statement budget.
+ * <p>
+ * The headers have to be set before the response commits, so they reflect the work done up to
+ * the first byte of the body. Lazy loads triggered while the body is being written (JSON
+ * serialization, Thymeleaf rendering) are still included in the metrics and the budget check.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountFilter extends OncePerRequestFilter {
+    
+    private static final Logger log = LoggerFactory.getLogger(QueryCountFilter.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${query-count.enabled:true}")
+    private boolean enabled;
+    
+    // Default statement budget per request; 0 or less disables the check
+    @Value("${query-count.threshold:20}")
+    private long threshold;
+    
+    // Per-endpoint overrides keyed by "METHOD /uri/{pattern}"
+    @Value("#{${query-count.budgets:{:}}}")
+    private Map<String, Long> budgets;
+    
+    @Value("${query-count.fail-on-exceed:false}")
+    private boolean failOnExceed;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter counter = QueryCounter.start();
+        CountingHeadersResponse wrappedResponse = new CountingHeadersResponse(response, counter);
+        try {
+            filterChain.doFilter(request, wrappedResponse);
+            wrappedResponse.writeCountHeaders();
+        } finally {
+            QueryCounter.stop();
+        }
+        
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        record(request.getMethod(), uri, counter);
+        checkBudget(request.getMethod(), uri, counter);
+    }
+    
+    private void record(String method, String uri, QueryCounter counter) {
+        Tags tags = Tags.of("method", method, "uri", uri);
+        DistributionSummary.builder("hibernate.request.statements").tags(tags)
+                .description("SQL statements prepared per request")
+                .register(meterRegistry).record(counter.getStatements());
+        DistributionSummary.builder("hibernate.request.entity.loads").tags(tags)
+                .description("Entities loaded per request")
+                .register(meterRegistry).record(counter.getEntityLoads());
+        DistributionSummary.builder("hibernate.request.collection.fetches").tags(tags)
+                .description("Lazy collections initialized per request")
+                .register(meterRegistry).record(counter.getCollectionFetches());
+    }
+    
+    private void checkBudget(String method, String uri, QueryCounter counter) {
+        String endpoint = method + " " + uri;
+        long budget = budgets.getOrDefault(endpoint, threshold);
+        if (budget <= 0 || counter.getStatements() <= budget) {
+            return;
+        }
+        
+        Counter.builder("hibernate.request.budget.exceeded")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry).increment();
+        log.warn("{} issued {} SQL statements (budget {}), {} entity loads, {} collection fetches",
+                endpoint, counter.getStatements(), budget, counter.getEntityLoads(), counter.getCollectionFetches());
+        if (failOnExceed) {
+            throw new QueryBudgetExceededException(endpoint, counter.getStatements(), budget);
+        }
+    }
+    
+    /**
+     * Adds the count headers just before the response is committed.
+     */
+    private static class CountingHeadersResponse extends HttpServletResponseWrapper {
+        
+        private final QueryCounter counter;
+        private boolean headersWritten;
+        
+        CountingHeadersResponse(HttpServletResponse response, QueryCounter counter) {
+            super(response);
+            this.counter = counter;
+        }
+        
+        void writeCountHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            headersWritten = true;
+            setHeader("X-Query-Count", String.valueOf(counter.getStatements()));
+            setHeader("X-Entity-Load-Count", String.valueOf(counter.getEntityLoads()));
+            setHeader("X-Collection-Fetch-Count", String.valueOf(counter.getCollectionFetches()));
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeCountHeaders();
+            return super.getOutputStream();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeCountHeaders();
+            return super.getWriter();
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            writeCountHeaders();
+            super.flushBuffer();
+        }
+        
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeCountHeaders();
+            super.sendError(sc);
+        }
+        
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeCountHeaders();
+            super.sendError(sc, msg);
+        }
+        
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeCountHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.projecttracker.config;
+
+/**
+ * Per-request tally of the SQL statements, entity loads and collection fetches Hibernate performs.
+ * Bound to the request thread by {@link QueryCountFilter}; work on other threads (report workers,
+ * streamed responses) has no counter bound and is not attributed to any request.
+ */
+public class QueryCounter {
+    
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+    
+    private long statements;
+    private long entityLoads;
+    private long collectionFetches;
+    
+    static QueryCounter start() {
+        QueryCounter counter = new QueryCounter();
+        CURRENT.set(counter);
+        return counter;
+    }
+    
+    static void stop() {
+        CURRENT.remove();
+    }
+    
+    static void statementPrepared() {
+        QueryCounter counter = CURRENT.get();
+        if (counter != null) {
+            counter.statements++;
+        }
+    }
+    
+    static void entityLoaded() {
+        QueryCounter counter = CURRENT.get();
+        if (counter != null) {
+            counter.entityLoads++;
+        }
+    }
+    
+    static void collectionFetched() {
+        QueryCounter counter = CURRENT.get();
+        if (counter != null) {
+            counter.collectionFetches++;
+        }
+    }
+    
+    public long getStatements() {
+        return statements;
+    }
+    
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+    
+    public long getCollectionFetches() {
+        return collectionFetches;
+    }
+}
@@ -0,0 +1,94 @@
+package com.projecttracker.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache on local, bounded Caffeine caches (through JCache). Every region
+ * is created here with its size and TTL; Hibernate is configured to fail on any region it does
+ * not find, so a new cached entity needs its region added below.
+ *
+ * <p>Hit, miss, put and eviction counts are exported as the {@code cache.*} metrics, tagged with
+ * the region name.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String USER_REGION = "users";
+    public static final String PROJECT_REGION = "projects";
+    /** Query-cache region for the manager and client listings. */
+    public static final String USER_LISTINGS_REGION = "user-listings";
+
+    @Value("${second-level-cache.entity.max-entries:10000}")
+    private long entityMaxEntries;
+
+    @Value("${second-level-cache.entity.ttl-seconds:600}")
+    private long entityTtlSeconds;
+
+    @Value("${second-level-cache.query.max-entries:100}")
+    private long queryMaxEntries;
+
+    @Value("${second-level-cache.query.ttl-seconds:300}")
+    private long queryTtlSeconds;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        cacheManager.createCache(USER_REGION, bounded(entityMaxEntries, entityTtlSeconds));
+        cacheManager.createCache(PROJECT_REGION, bounded(entityMaxEntries, entityTtlSeconds));
+        cacheManager.createCache(USER_LISTINGS_REGION, bounded(queryMaxEntries, queryTtlSeconds));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                bounded(queryMaxEntries, queryTtlSeconds));
+        // Table modification timestamps decide whether a cached query result is still valid; an
+        // evicted timestamp would let a stale result through, so this region is never bounded
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, unbounded());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheHibernateCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String name : hibernateCacheManager.getCacheNames()) {
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(name), Tags.of("cacheManager", "hibernate"));
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxEntries, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = unbounded();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        return configuration;
+    }
+
+    private static CaffeineConfiguration<Object, Object> unbounded() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,27 @@
+package com.projecttracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sizes the read and write buffers Tomcat keeps for every open connection. Each open change stream
+ * holds a connection, so these buffers are most of what an idle subscriber costs. Writes larger
+ * than the write buffer go to the socket directly, so report downloads are not slowed by a small
+ * one.
+ */
+@Configuration
+public class TomcatConfig implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+    
+    @Value("${tomcat.socket-buffer-size:8192}")
+    private int socketBufferSize;
+    
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        factory.addConnectorCustomizers(connector -> {
+            connector.setProperty("socket.appReadBufSize", String.valueOf(socketBufferSize));
+            connector.setProperty("socket.appWriteBufSize", String.valueOf(socketBufferSize));
+        });
+    }
+}
@@ -1,9 +1,17 @@
 package com.projecttracker.controller;
 
+import com.projecttracker.config.JwtService;
 import com.projecttracker.entity.User;
+import com.projecttracker.service.PasswordVerificationRejectedException;
 import com.projecttracker.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,6 +20,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -19,10 +28,15 @@ import java.util.Optional;
 @Controller
 @RequestMapping("/auth")
 public class AuthController {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
     
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private JwtService jwtService;
+    
     @GetMapping("/login")
     public String loginPage() {
         return "login";
@@ -59,50 +73,62 @@ public class AuthController {
 
     @PostMapping("/login")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> login(@RequestBody Map<String, String> loginData, HttpSession session) {
-        System.out.println("Login attempt received: " + loginData.get("username"));
+    public ResponseEntity<Map<String, Object>> login(@RequestBody Map<String, String> loginData, HttpSession session,
+                                                     HttpServletResponse httpResponse) {
         Map<String, Object> response = new HashMap<>();
         String username = loginData.get("username");
         String password = loginData.get("password");
         
         try {
-            if (userService.validateUser(username, password)) {
-                Optional<User> userOpt = userService.findByUsername(username);
-                if (userOpt.isPresent()) {
-                    User user = userOpt.get();
-                    session.setAttribute("user", user);
-                    
-                    // Set up Spring Security context
-                    UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                        .username(user.getUsername())
-                        .password(user.getPassword())
-                        .roles(user.getRole().toString())
+            Optional<User> userOpt = userService.authenticate(username, password);
+            if (userOpt.isPresent()) {
+                User user = userOpt.get();
+                session.setAttribute("user", user);
+                
+                // Set up Spring Security context
+                UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
+                    .username(user.getUsername())
+                    .password(user.getPassword())
+                    .roles(user.getRole().toString())
+                    .build();
+                
+                Authentication authentication = org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+                    .authenticated(userDetails, null, userDetails.getAuthorities());
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                
+                response.put("message", "Login successful");
+                response.put("userId", user.getId());
+                response.put("username", user.getUsername());
+                response.put("role", user.getRole().toString());
+                String redirectUrl = getRedirectUrl(user.getRole());
+                response.put("redirectUrl", redirectUrl);
+                
+                if (jwtService.isEnabled()) {
+                    // The token is only handed out as an HttpOnly cookie, so page scripts cannot read it;
+                    // API clients take it from Set-Cookie and may send it back as a Bearer header
+                    String token = jwtService.issueToken(user);
+                    ResponseCookie cookie = ResponseCookie.from(JwtService.COOKIE_NAME, token)
+                        .httpOnly(true)
+                        .sameSite("Lax")
+                        .path("/")
+                        .maxAge(Duration.ofMillis(jwtService.getExpirationMillis()))
                         .build();
-                    
-                    Authentication authentication = org.springframework.security.authentication.UsernamePasswordAuthenticationToken
-                        .authenticated(userDetails, null, userDetails.getAuthorities());
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    
-                    response.put("message", "Login successful");
-                    response.put("userId", user.getId());
-                    response.put("username", user.getUsername());
-                    response.put("role", user.getRole().toString());
-                    String redirectUrl = getRedirectUrl(user.getRole());
-                    response.put("redirectUrl", redirectUrl);
-                    
-                    System.out.println("Login successful for user: " + username);
-                    System.out.println("Redirect URL: " + redirectUrl);
-                    System.out.println("Full response: " + response);
-                    return ResponseEntity.ok(response);
+                    httpResponse.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
                 }
+                
+                log.debug("Login successful for user {}", username);
+                return ResponseEntity.ok(response);
             }
             
-            System.out.println("Login failed for user: " + username);
+            log.debug("Login failed for user {}", username);
             response.put("error", "Invalid username or password");
             return ResponseEntity.badRequest().body(response);
+        } catch (PasswordVerificationRejectedException e) {
+            log.warn("Login rejected for user {}: {}", username, e.getMessage());
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "1").body(response);
         } catch (Exception e) {
-            System.out.println("Login error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Login error for user {}", username, e);
             response.put("error", "Login failed: " + e.getMessage());
             return ResponseEntity.badRequest().body(response);
         }
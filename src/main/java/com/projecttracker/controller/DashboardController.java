@@ -0,0 +1,27 @@
+package com.projecttracker.controller;
+
+import com.projecttracker.dto.DashboardDTO;
+import com.projecttracker.entity.User;
+import com.projecttracker.service.DashboardService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+    
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @GetMapping
+    public ResponseEntity<DashboardDTO> getDashboard(HttpSession session) {
+        User currentUser = (User) session.getAttribute("user");
+        if (currentUser == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return ResponseEntity.ok(dashboardService.getDashboard(currentUser));
+    }
+}
@@ -1,21 +1,31 @@
 package com.projecttracker.controller;
 
+import com.projecttracker.config.ConditionalRequestSupport;
+import com.projecttracker.dto.CursorPage;
+import com.projecttracker.dto.MilestoneOrderRequest;
+import com.projecttracker.dto.MilestoneView;
 import com.projecttracker.entity.Milestone;
 import com.projecttracker.entity.Project;
 import com.projecttracker.entity.User;
+import com.projecttracker.repository.ProjectVersion;
 import com.projecttracker.service.MilestoneService;
+import com.projecttracker.service.PreconditionRequiredException;
 import com.projecttracker.service.ProjectService;
+import com.projecttracker.service.VersionConflictException;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Controller
 @RequestMapping("/api/milestones")
@@ -27,39 +37,57 @@ public class MilestoneController {
     @Autowired
     private ProjectService projectService;
     
+    @Autowired
+    private ConditionalRequestSupport conditionalRequestSupport;
+    
     @GetMapping("/project/{projectId}")
     @ResponseBody
-    public ResponseEntity<List<Milestone>> getMilestonesByProject(@PathVariable Long projectId, HttpSession session) {
+    public ResponseEntity<CursorPage<MilestoneView>> getMilestonesByProject(@PathVariable Long projectId,
+                                                                            @RequestParam(required = false) Milestone.MilestoneStatus status,
+                                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+                                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+                                                                            @RequestParam(required = false) String cursor,
+                                                                            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_PAGE_SIZE) int limit,
+                                                                            HttpSession session,
+                                                                            WebRequest request) {
         User currentUser = (User) session.getAttribute("user");
         if (currentUser == null) {
             return ResponseEntity.badRequest().build();
         }
         
-        Optional<Project> projectOpt = projectService.findById(projectId);
-        if (projectOpt.isPresent()) {
-            Project project = projectOpt.get();
-            if (hasAccessToProject(currentUser, project)) {
-                List<Milestone> milestones = milestoneService.findByProject(project);
-                return ResponseEntity.ok(milestones);
-            }
+        Optional<ProjectVersion> versionOpt = projectService.findVersionById(projectId);
+        if (versionOpt.isEmpty() || !hasAccessToProject(currentUser, versionOpt.get())) {
+            return ResponseEntity.notFound().build();
+        }
+        // Filters, cursor and limit are part of the URL, which browsers already key the ETag by
+        ProjectVersion version = versionOpt.get();
+        String etag = conditionalRequestSupport.etag(version.getMilestoneCount(), version.getMilestonesUpdatedAt());
+        if (conditionalRequestSupport.isNotModified(request, "milestones", etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(ConditionalRequestSupport.REVALIDATE).build();
         }
         
-        return ResponseEntity.notFound().build();
+        try {
+            return ResponseEntity.ok().eTag(etag).cacheControl(ConditionalRequestSupport.REVALIDATE)
+                    .body(milestoneService.findViewPageByProjectId(projectId, status, dueFrom, dueTo, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/{id}")
     @ResponseBody
-    public ResponseEntity<Milestone> getMilestoneById(@PathVariable Long id, HttpSession session) {
+    public ResponseEntity<MilestoneView> getMilestoneById(@PathVariable Long id, HttpSession session) {
         User currentUser = (User) session.getAttribute("user");
         if (currentUser == null) {
             return ResponseEntity.badRequest().build();
         }
         
-        Optional<Milestone> milestoneOpt = milestoneService.findById(id);
+        Optional<MilestoneView> milestoneOpt = milestoneService.findViewById(id);
         if (milestoneOpt.isPresent()) {
-            Milestone milestone = milestoneOpt.get();
-            if (hasAccessToProject(currentUser, milestone.getProject())) {
-                return ResponseEntity.ok(milestone);
+            MilestoneView milestone = milestoneOpt.get();
+            Optional<Project> projectOpt = projectService.findById(milestone.getProjectId());
+            if (projectOpt.isPresent() && hasAccessToProject(currentUser, projectOpt.get())) {
+                return ResponseEntity.ok().eTag(conditionalRequestSupport.versionTag(milestone.getVersion())).body(milestone);
             }
         }
         
@@ -123,29 +151,110 @@ public class MilestoneController {
         return ResponseEntity.badRequest().body(response);
     }
     
+    /**
+     * Replaces the milestone's title, description, status and due date. {@code If-Match} with the
+     * milestone's version is required (428 without it); a stale one gets 409 with the current
+     * milestone.
+     */
     @PutMapping("/{id}")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> updateMilestone(@PathVariable Long id, @RequestBody Milestone milestoneDetails, HttpSession session) {
+    public ResponseEntity<Map<String, Object>> updateMilestone(@PathVariable Long id, @RequestBody Milestone milestoneDetails,
+                                                               @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                               HttpSession session) {
+        return applyUpdate(id, ifMatch, session, expectedVersion -> milestoneService.updateMilestone(id, milestoneDetails, expectedVersion));
+    }
+    
+    /**
+     * Changes only the fields present in the body. A status-only change without {@code If-Match}
+     * is merged into the latest version (e.g. a status flip from the roadmap), retrying on a
+     * concurrent write; any other change without it gets 428.
+     */
+    @PatchMapping("/{id}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> patchMilestone(@PathVariable Long id, @RequestBody Milestone changes,
+                                                              @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                              HttpSession session) {
+        return applyUpdate(id, ifMatch, session, expectedVersion -> milestoneService.mergeMilestone(id, changes, expectedVersion));
+    }
+    
+    /**
+     * Moves milestones within the project in one transaction; see
+     * {@link MilestoneService#reorderMilestones} for the semantics.
+     */
+    @PutMapping("/project/{projectId}/order")
+    @ResponseBody
+    public ResponseEntity<Map<String, String>> reorderMilestones(@PathVariable Long projectId, @RequestBody MilestoneOrderRequest order,
+                                                                 HttpSession session) {
+        User currentUser = (User) session.getAttribute("user");
+        if (currentUser == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        Optional<Project> projectOpt = projectService.findById(projectId);
+        if (projectOpt.isEmpty() || !canManageMilestones(currentUser, projectOpt.get())) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        Map<String, String> response = new HashMap<>();
+        if (order.getMilestoneIds() == null) {
+            response.put("error", "milestoneIds is required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            milestoneService.reorderMilestones(projectOpt.get(), order.getMilestoneIds(), order.getAfterId());
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        response.put("message", "Milestones reordered successfully");
+        return ResponseEntity.ok(response);
+    }
+    
+    private ResponseEntity<Map<String, Object>> applyUpdate(Long id, String ifMatch, HttpSession session, Function<Long, Milestone> update) {
         User currentUser = (User) session.getAttribute("user");
         if (currentUser == null) {
             return ResponseEntity.badRequest().build();
         }
         
+        Long expectedVersion;
+        try {
+            expectedVersion = conditionalRequestSupport.parseIfMatch(ifMatch);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        
         Optional<Milestone> milestoneOpt = milestoneService.findById(id);
         if (milestoneOpt.isPresent()) {
             Milestone milestone = milestoneOpt.get();
             if (canManageMilestones(currentUser, milestone.getProject())) {
-                Milestone updatedMilestone = milestoneService.updateMilestone(id, milestoneDetails);
-                
-                Map<String, Object> response = new HashMap<>();
-                response.put("message", "Milestone updated successfully");
-                response.put("milestone", updatedMilestone);
-                return ResponseEntity.ok(response);
+                try {
+                    Milestone updatedMilestone = update.apply(expectedVersion);
+                    
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("message", "Milestone updated successfully");
+                    response.put("milestone", updatedMilestone);
+                    return ResponseEntity.ok().eTag(conditionalRequestSupport.versionTag(updatedMilestone.getVersion())).body(response);
+                } catch (PreconditionRequiredException e) {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("error", e.getMessage());
+                    return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body(response);
+                } catch (VersionConflictException e) {
+                    // The current state lets the client show what changed and retry from it
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("error", e.getMessage());
+                    Optional<MilestoneView> current = milestoneService.findViewById(id);
+                    if (current.isEmpty()) {
+                        return ResponseEntity.notFound().build();
+                    }
+                    response.put("milestone", current.get());
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .eTag(conditionalRequestSupport.versionTag(current.get().getVersion())).body(response);
+                }
             }
         }
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "Milestone not found or access denied");
         return ResponseEntity.notFound().build();
     }
     
@@ -175,26 +284,29 @@ public class MilestoneController {
     
     @GetMapping("/progress/{projectId}")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> getProjectProgress(@PathVariable Long projectId, HttpSession session) {
+    public ResponseEntity<Map<String, Object>> getProjectProgress(@PathVariable Long projectId, HttpSession session,
+                                                                  WebRequest request) {
         User currentUser = (User) session.getAttribute("user");
         if (currentUser == null) {
             return ResponseEntity.badRequest().build();
         }
         
-        Optional<Project> projectOpt = projectService.findById(projectId);
-        if (projectOpt.isPresent()) {
-            Project project = projectOpt.get();
-            if (hasAccessToProject(currentUser, project)) {
-                double progress = milestoneService.getProjectProgress(projectId);
-                
-                Map<String, Object> response = new HashMap<>();
-                response.put("projectId", projectId);
-                response.put("progress", progress);
-                return ResponseEntity.ok(response);
-            }
+        Optional<ProjectVersion> versionOpt = projectService.findVersionById(projectId);
+        if (versionOpt.isEmpty() || !hasAccessToProject(currentUser, versionOpt.get())) {
+            return ResponseEntity.notFound().build();
+        }
+        // Progress comes from the project's milestone counters, and every counter change bumps
+        // the project's updatedAt
+        String etag = conditionalRequestSupport.etag(versionOpt.get().getUpdatedAt());
+        if (conditionalRequestSupport.isNotModified(request, "progress", etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(ConditionalRequestSupport.REVALIDATE).build();
         }
         
-        return ResponseEntity.notFound().build();
+        double progress = milestoneService.getProjectProgress(projectId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("projectId", projectId);
+        response.put("progress", progress);
+        return ResponseEntity.ok().eTag(etag).cacheControl(ConditionalRequestSupport.REVALIDATE).body(response);
     }
     
     private boolean hasAccessToProject(User user, Project project) {
@@ -214,6 +326,19 @@ public class MilestoneController {
         return false;
     }
     
+    private boolean hasAccessToProject(User user, ProjectVersion version) {
+        switch (user.getRole()) {
+            case ADMIN:
+                return true;
+            case CLIENT:
+                return user.getId().equals(version.getClientId());
+            case MANAGER:
+                return user.getId().equals(version.getManagerId());
+            default:
+                return false;
+        }
+    }
+    
     private boolean canManageMilestones(User user, Project project) {
         if (user.getRole() == User.Role.ADMIN) {
             return true;
@@ -1,17 +1,28 @@
 package com.projecttracker.controller;
 
+import com.projecttracker.config.ConditionalRequestSupport;
+import com.projecttracker.dto.CursorPage;
 import com.projecttracker.dto.ProjectDTO;
+import com.projecttracker.dto.ProjectFilter;
 import com.projecttracker.dto.ProjectMapper;
+import com.projecttracker.dto.UserView;
 import com.projecttracker.entity.Project;
 import com.projecttracker.entity.User;
+import com.projecttracker.repository.ProjectVersion;
+import com.projecttracker.service.PreconditionRequiredException;
 import com.projecttracker.service.ProjectService;
 import com.projecttracker.service.UserService;
+import com.projecttracker.service.VersionConflictException;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,33 +38,62 @@ public class ProjectController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private ConditionalRequestSupport conditionalRequestSupport;
+    
     @GetMapping
     @ResponseBody
-    public ResponseEntity<List<ProjectDTO>> getAllProjects(HttpSession session) {
+    public ResponseEntity<CursorPage<ProjectDTO>> getAllProjects(@RequestParam(required = false) Project.ProjectStatus status,
+                                                                 @RequestParam(required = false) Long clientId,
+                                                                 @RequestParam(required = false) Long managerId,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startFrom,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startTo,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "" + CursorPage.DEFAULT_PAGE_SIZE) int limit,
+                                                                 HttpSession session) {
         User currentUser = (User) session.getAttribute("user");
         if (currentUser == null) {
             return ResponseEntity.badRequest().build();
         }
         
-        List<Project> projects = projectService.getProjectsForUser(currentUser);
-        List<ProjectDTO> projectDTOs = ProjectMapper.toDTOList(projects);
-        return ResponseEntity.ok(projectDTOs);
+        ProjectFilter filter = new ProjectFilter();
+        filter.setStatus(status);
+        filter.setClientId(clientId);
+        filter.setManagerId(managerId);
+        filter.setStartFrom(startFrom);
+        filter.setStartTo(startTo);
+        try {
+            CursorPage<Project> page = projectService.findPageForUser(currentUser, filter, cursor, limit);
+            return ResponseEntity.ok(page.map(ProjectMapper::toDTO));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/{id}")
     @ResponseBody
-    public ResponseEntity<ProjectDTO> getProjectById(@PathVariable Long id, HttpSession session) {
+    public ResponseEntity<ProjectDTO> getProjectById(@PathVariable Long id, HttpSession session, WebRequest request) {
         User currentUser = (User) session.getAttribute("user");
         if (currentUser == null) {
             return ResponseEntity.badRequest().build();
         }
         
-        Optional<Project> projectOpt = projectService.findById(id);
+        // The version is read first, so the body served with an ETag is never older than it
+        Optional<ProjectVersion> versionOpt = projectService.findVersionById(id);
+        if (versionOpt.isEmpty() || !hasAccessToProject(currentUser, versionOpt.get())) {
+            return ResponseEntity.notFound().build();
+        }
+        ProjectVersion version = versionOpt.get();
+        String etag = conditionalRequestSupport.etag(version.getUpdatedAt(), version.getClientId(), version.getClientUpdatedAt(),
+                version.getManagerId(), version.getManagerUpdatedAt());
+        if (conditionalRequestSupport.isNotModified(request, "project", etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(ConditionalRequestSupport.REVALIDATE).build();
+        }
+        
+        Optional<Project> projectOpt = projectService.findByIdWithUsers(id);
         if (projectOpt.isPresent()) {
-            Project project = projectOpt.get();
-            if (hasAccessToProject(currentUser, project)) {
-                return ResponseEntity.ok(ProjectMapper.toDTO(project));
-            }
+            return ResponseEntity.ok().eTag(etag).cacheControl(ConditionalRequestSupport.REVALIDATE)
+                    .body(ProjectMapper.toDTO(projectOpt.get()));
         }
         
         return ResponseEntity.notFound().build();
@@ -114,28 +154,57 @@ public class ProjectController {
         }
     }
     
+    /**
+     * Replaces the project's fields. {@code If-Match} holding the project's {@code version} is
+     * required (428 without it); a stale one gets 409 with the current project.
+     */
     @PutMapping("/{id}")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> updateProject(@PathVariable Long id, @RequestBody Project projectDetails, HttpSession session) {
+    public ResponseEntity<Map<String, Object>> updateProject(@PathVariable Long id, @RequestBody Project projectDetails,
+                                                             @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                             HttpSession session) {
         User currentUser = (User) session.getAttribute("user");
         if (currentUser == null) {
             return ResponseEntity.badRequest().build();
         }
         
+        Long expectedVersion;
+        try {
+            expectedVersion = conditionalRequestSupport.parseIfMatch(ifMatch);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        
         Optional<Project> projectOpt = projectService.findById(id);
         if (projectOpt.isPresent()) {
             Project project = projectOpt.get();
             if (canUpdateProject(currentUser, project)) {
-                Project updatedProject = projectService.updateProject(id, projectDetails);
-                Map<String, Object> response = new HashMap<>();
-                response.put("message", "Project updated successfully");
-                response.put("project", updatedProject);
-                return ResponseEntity.ok(response);
+                try {
+                    Project updatedProject = projectService.updateProject(id, projectDetails, expectedVersion);
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("message", "Project updated successfully");
+                    response.put("project", updatedProject);
+                    return ResponseEntity.ok().eTag(conditionalRequestSupport.versionTag(updatedProject.getVersion())).body(response);
+                } catch (PreconditionRequiredException e) {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("error", e.getMessage());
+                    return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body(response);
+                } catch (VersionConflictException e) {
+                    Optional<Project> current = projectService.findByIdWithUsers(id);
+                    if (current.isEmpty()) {
+                        return ResponseEntity.notFound().build();
+                    }
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("error", e.getMessage());
+                    response.put("project", ProjectMapper.toDTO(current.get()));
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .eTag(conditionalRequestSupport.versionTag(current.get().getVersion())).body(response);
+                }
             }
         }
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "Project not found or access denied");
         return ResponseEntity.notFound().build();
     }
     
@@ -157,24 +226,21 @@ public class ProjectController {
     
     @GetMapping("/managers")
     @ResponseBody
-    public ResponseEntity<List<User>> getManagers() {
-        List<User> managers = userService.findAllManagers();
-        return ResponseEntity.ok(managers);
+    public ResponseEntity<List<UserView>> getManagers() {
+        return ResponseEntity.ok(userService.findViewsByRole(User.Role.MANAGER));
     }
     
-    private boolean hasAccessToProject(User user, Project project) {
-        if (user.getRole() == User.Role.ADMIN) {
-            return true;
-        }
-        if (user.getRole() == User.Role.CLIENT && project.getClient().getId().equals(user.getId())) {
-            return true;
+    private boolean hasAccessToProject(User user, ProjectVersion version) {
+        switch (user.getRole()) {
+            case ADMIN:
+                return true;
+            case CLIENT:
+                return user.getId().equals(version.getClientId());
+            case MANAGER:
+                return user.getId().equals(version.getManagerId());
+            default:
+                return false;
         }
-        if (user.getRole() == User.Role.MANAGER
-                && project.getManager() != null
-                && project.getManager().getId().equals(user.getId())) {
-            return true;
-        }
-        return false;
     }
     
     private boolean canUpdateProject(User user, Project project) {
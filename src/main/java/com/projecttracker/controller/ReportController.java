@@ -1,15 +1,31 @@
 package com.projecttracker.controller;
 
 import com.projecttracker.entity.User;
+import com.projecttracker.repository.ProjectVersion;
+import com.projecttracker.service.ProjectService;
+import com.projecttracker.service.UserService;
+import com.projecttracker.service.report.ReportJob;
+import com.projecttracker.service.report.ReportJobRejectedException;
+import com.projecttracker.service.report.ReportJobService;
+import com.projecttracker.service.report.ReportBundleService;
+import com.projecttracker.service.report.ReportCacheService;
 import com.projecttracker.service.report.ReportService;
+import com.projecttracker.service.report.ReportType;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
 @Controller
 @RequestMapping("/api/reports")
@@ -18,8 +34,24 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
     
+    @Autowired
+    private ReportJobService reportJobService;
+    
+    @Autowired
+    private ReportCacheService reportCacheService;
+    
+    @Autowired
+    private ReportBundleService reportBundleService;
+    
+    @Autowired
+    private ProjectService projectService;
+    
+    @Autowired
+    private UserService userService;
+    
     @GetMapping("/project/{projectId}")
     public void generateProjectReport(@PathVariable Long projectId, 
+                                    HttpServletRequest request,
                                     HttpServletResponse response, 
                                     HttpSession session) throws IOException {
         User currentUser = (User) session.getAttribute("user");
@@ -28,8 +60,13 @@ public class ReportController {
             return;
         }
         
+        if (!canRequestReport(currentUser, ReportType.PROJECT, projectId)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        
         try {
-            reportService.generateProjectReport(projectId, response);
+            reportCacheService.serve(ReportType.PROJECT, projectId, request, response);
         } catch (Exception e) {
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
         }
@@ -37,6 +74,7 @@ public class ReportController {
     
     @GetMapping("/client/{clientId}")
     public void generateClientReport(@PathVariable Long clientId, 
+                                   HttpServletRequest request,
                                    HttpServletResponse response, 
                                    HttpSession session) throws IOException {
         User currentUser = (User) session.getAttribute("user");
@@ -53,7 +91,7 @@ public class ReportController {
         }
         
         try {
-            reportService.generateClientReport(clientId, response);
+            reportCacheService.serve(ReportType.CLIENT, clientId, request, response);
         } catch (Exception e) {
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
         }
@@ -61,6 +99,7 @@ public class ReportController {
     
     @GetMapping("/manager/{managerId}")
     public void generateManagerReport(@PathVariable Long managerId, 
+                                    HttpServletRequest request,
                                     HttpServletResponse response, 
                                     HttpSession session) throws IOException {
         User currentUser = (User) session.getAttribute("user");
@@ -77,14 +116,15 @@ public class ReportController {
         }
         
         try {
-            reportService.generateManagerReport(managerId, response);
+            reportCacheService.serve(ReportType.MANAGER, managerId, request, response);
         } catch (Exception e) {
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
         }
     }
     
     @GetMapping("/admin/all")
-    public void generateAdminReport(HttpServletResponse response, 
+    public void generateAdminReport(HttpServletRequest request,
+                                  HttpServletResponse response, 
                                   HttpSession session) throws IOException {
         User currentUser = (User) session.getAttribute("user");
         if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
@@ -93,28 +133,219 @@ public class ReportController {
         }
         
         try {
-            reportService.generateAdminReport(response);
+            reportCacheService.serve(ReportType.ADMIN, null, request, response);
         } catch (Exception e) {
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
         }
     }
     
+    @GetMapping("/admin/bundle")
+    public ResponseEntity<StreamingResponseBody> generateAdminBundle(HttpSession session) {
+        User currentUser = (User) session.getAttribute("user");
+        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        StreamingResponseBody body = outputStream -> reportBundleService.writeAdminBundle(outputStream);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=admin_report_bundle.zip")
+                .header("Content-Type", "application/zip")
+                .body(body);
+    }
+    
     @GetMapping("/csv/project/{projectId}")
-    public ResponseEntity<String> generateProjectCSV(@PathVariable Long projectId, 
-                                                    HttpSession session) {
+    public ResponseEntity<StreamingResponseBody> generateProjectCSV(@PathVariable Long projectId, 
+                                                                   HttpSession session) {
         User currentUser = (User) session.getAttribute("user");
         if (currentUser == null) {
             return ResponseEntity.badRequest().build();
         }
+        if (projectService.findById(projectId).isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!canRequestReport(currentUser, ReportType.PROJECT, projectId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        StreamingResponseBody body = outputStream -> reportService.writeProjectCSV(projectId, outputStream);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=" + reportService.getCSVFilename(ReportType.PROJECT, projectId))
+                .header("Content-Type", "text/csv")
+                .body(body);
+    }
+    
+    @GetMapping("/csv/client/{clientId}")
+    public ResponseEntity<StreamingResponseBody> generateClientCSV(@PathVariable Long clientId,
+                                                                  HttpSession session) {
+        return streamScopeCSV(ReportType.CLIENT, clientId, session);
+    }
+    
+    @GetMapping("/csv/manager/{managerId}")
+    public ResponseEntity<StreamingResponseBody> generateManagerCSV(@PathVariable Long managerId,
+                                                                   HttpSession session) {
+        return streamScopeCSV(ReportType.MANAGER, managerId, session);
+    }
+    
+    @GetMapping("/csv/admin/all")
+    public ResponseEntity<StreamingResponseBody> generateAdminCSV(HttpSession session) {
+        return streamScopeCSV(ReportType.ADMIN, null, session);
+    }
+    
+    private ResponseEntity<StreamingResponseBody> streamScopeCSV(ReportType type, Long targetId, HttpSession session) {
+        User currentUser = (User) session.getAttribute("user");
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!canRequestReport(currentUser, type, targetId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (targetId != null && userService.findById(targetId).isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        StreamingResponseBody body = outputStream -> reportService.writeScopeCSV(type, targetId, outputStream);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=" + reportService.getCSVFilename(type, targetId))
+                .header("Content-Type", "text/csv")
+                .body(body);
+    }
+    
+    @PostMapping("/jobs")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> submitReportJob(@RequestBody Map<String, Object> jobData,
+                                                               HttpSession session) {
+        User currentUser = (User) session.getAttribute("user");
+        Map<String, Object> response = new HashMap<>();
+        if (currentUser == null) {
+            response.put("error", "Not logged in");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
         
+        ReportType type;
+        Long targetId = null;
         try {
-            String csv = reportService.generateProjectCSV(projectId);
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=project_" + projectId + "_report.csv")
-                    .header("Content-Type", "text/csv")
-                    .body(csv);
-        } catch (Exception e) {
+            type = ReportType.valueOf(String.valueOf(jobData.get("type")));
+            if (jobData.get("targetId") != null && !jobData.get("targetId").toString().isBlank()) {
+                targetId = Long.valueOf(jobData.get("targetId").toString());
+            }
+        } catch (IllegalArgumentException e) {
+            response.put("error", "Invalid report type or target");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        if (type != ReportType.ADMIN && targetId == null) {
+            response.put("error", "Target ID is required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (!canRequestReport(currentUser, type, targetId)) {
+            response.put("error", "Access denied");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        
+        try {
+            ReportJob job = reportJobService.submit(type, targetId, currentUser.getId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(toJobResponse(job));
+        } catch (ReportJobRejectedException e) {
+            response.put("error", e.getMessage());
+            HttpStatus status = e.getReason() == ReportJobRejectedException.Reason.USER_LIMIT
+                    ? HttpStatus.TOO_MANY_REQUESTS
+                    : HttpStatus.SERVICE_UNAVAILABLE;
+            return ResponseEntity.status(status).header("Retry-After", "5").body(response);
+        }
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getReportJob(@PathVariable String jobId, HttpSession session) {
+        User currentUser = (User) session.getAttribute("user");
+        if (currentUser == null) {
             return ResponseEntity.badRequest().build();
         }
+        
+        Optional<ReportJob> jobOpt = reportJobService.findJob(jobId);
+        if (jobOpt.isPresent() && canAccessJob(currentUser, jobOpt.get())) {
+            return ResponseEntity.ok(toJobResponse(jobOpt.get()));
+        }
+        return ResponseEntity.notFound().build();
+    }
+    
+    @GetMapping("/jobs/{jobId}/download")
+    public void downloadReportJob(@PathVariable String jobId,
+                                  HttpServletResponse response,
+                                  HttpSession session) throws IOException {
+        User currentUser = (User) session.getAttribute("user");
+        if (currentUser == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        
+        Optional<ReportJob> jobOpt = reportJobService.findJob(jobId);
+        if (jobOpt.isEmpty() || !canAccessJob(currentUser, jobOpt.get())) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        ReportJob job = jobOpt.get();
+        if (job.getStatus() != ReportJob.JobStatus.COMPLETED || !Files.exists(job.getFile())) {
+            response.sendError(HttpServletResponse.SC_CONFLICT, "Report is not ready");
+            return;
+        }
+        
+        response.setContentType("application/pdf");
+        response.setHeader("Content-Disposition", "attachment; filename=" + job.getFilename());
+        response.setContentLengthLong(Files.size(job.getFile()));
+        Files.copy(job.getFile(), response.getOutputStream());
+    }
+    
+    private boolean canRequestReport(User user, ReportType type, Long targetId) {
+        switch (type) {
+            case PROJECT:
+                Optional<ProjectVersion> versionOpt = projectService.findVersionById(targetId);
+                return versionOpt.isPresent() && hasAccessToProject(user, versionOpt.get());
+            case CLIENT:
+            case MANAGER:
+                return user.getRole() == User.Role.ADMIN || user.getId().equals(targetId);
+            case ADMIN:
+                return user.getRole() == User.Role.ADMIN;
+            default:
+                return false;
+        }
+    }
+    
+    // The requester must still be allowed the report: a project may have been reassigned since
+    private boolean canAccessJob(User user, ReportJob job) {
+        if (user.getRole() == User.Role.ADMIN) {
+            return true;
+        }
+        return user.getId().equals(job.getOwnerId()) && canRequestReport(user, job.getType(), job.getTargetId());
+    }
+    
+    private boolean hasAccessToProject(User user, ProjectVersion version) {
+        switch (user.getRole()) {
+            case ADMIN:
+                return true;
+            case CLIENT:
+                return user.getId().equals(version.getClientId());
+            case MANAGER:
+                return user.getId().equals(version.getManagerId());
+            default:
+                return false;
+        }
+    }
+    
+    private Map<String, Object> toJobResponse(ReportJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getId());
+        response.put("type", job.getType());
+        response.put("status", job.getStatus());
+        response.put("createdAt", job.getCreatedAt());
+        response.put("finishedAt", job.getFinishedAt());
+        if (job.getError() != null) {
+            response.put("error", job.getError());
+        }
+        if (job.getStatus() == ReportJob.JobStatus.COMPLETED) {
+            response.put("downloadUrl", "/api/reports/jobs/" + job.getId() + "/download");
+        }
+        return response;
     }
 }
@@ -0,0 +1,41 @@
+package com.projecttracker.controller;
+
+import com.projecttracker.entity.User;
+import com.projecttracker.service.stream.ChangeStreamService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Controller
+public class StreamController {
+    
+    @Autowired
+    private ChangeStreamService changeStreamService;
+    
+    /**
+     * Server-Sent Events of project and milestone changes visible to the current user. Event
+     * names are {@code project} and {@code milestone}, with JSON data holding the action
+     * (created/updated/deleted/reordered), ids, status and the project's new progress; a
+     * {@code reset} event means missed events could not be replayed and the page should reload.
+     */
+    @GetMapping(path = "/api/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public ResponseEntity<SseEmitter> stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                             HttpSession session) {
+        User currentUser = (User) session.getAttribute("user");
+        if (currentUser == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(changeStreamService.subscribe(currentUser, lastEventId));
+    }
+}
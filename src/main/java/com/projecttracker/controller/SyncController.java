@@ -0,0 +1,31 @@
+package com.projecttracker.controller;
+
+import com.projecttracker.dto.SyncDelta;
+import com.projecttracker.entity.User;
+import com.projecttracker.service.SyncService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    @GetMapping
+    public ResponseEntity<SyncDelta> sync(@RequestParam(required = false) String since, HttpSession session) {
+        User currentUser = (User) session.getAttribute("user");
+        if (currentUser == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.ok(syncService.getChanges(currentUser, since));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
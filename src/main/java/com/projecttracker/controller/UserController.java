@@ -1,5 +1,7 @@
 package com.projecttracker.controller;
 
+import com.projecttracker.dto.CursorPage;
+import com.projecttracker.dto.UserView;
 import com.projecttracker.entity.User;
 import com.projecttracker.service.UserService;
 import jakarta.servlet.http.HttpSession;
@@ -18,30 +20,32 @@ public class UserController {
     private UserService userService;
     
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers(HttpSession session) {
+    public ResponseEntity<CursorPage<UserView>> getAllUsers(@RequestParam(required = false) User.Role role,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_PAGE_SIZE) int limit,
+                                                            HttpSession session) {
         User currentUser = (User) session.getAttribute("user");
         if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
             return ResponseEntity.badRequest().build();
         }
         
-        List<User> users = userService.findAll();
-        // Remove passwords from response
-        users.forEach(user -> user.setPassword(null));
-        return ResponseEntity.ok(users);
+        // The view query never selects the password column
+        try {
+            return ResponseEntity.ok(userService.findViewPage(role, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id, HttpSession session) {
+    public ResponseEntity<UserView> getUserById(@PathVariable Long id, HttpSession session) {
         User currentUser = (User) session.getAttribute("user");
         if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
             return ResponseEntity.badRequest().build();
         }
         
-        return userService.findById(id)
-                .map(user -> {
-                    user.setPassword(null);
-                    return ResponseEntity.ok(user);
-                })
+        return userService.findViewById(id)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
     
@@ -81,16 +85,12 @@ public class UserController {
     }
     
     @GetMapping("/managers")
-    public ResponseEntity<List<User>> getManagers() {
-        List<User> managers = userService.findAllManagers();
-        managers.forEach(user -> user.setPassword(null));
-        return ResponseEntity.ok(managers);
+    public ResponseEntity<List<UserView>> getManagers() {
+        return ResponseEntity.ok(userService.findViewsByRole(User.Role.MANAGER));
     }
     
     @GetMapping("/clients")
-    public ResponseEntity<List<User>> getClients() {
-        List<User> clients = userService.findAllClients();
-        clients.forEach(user -> user.setPassword(null));
-        return ResponseEntity.ok(clients);
+    public ResponseEntity<List<UserView>> getClients() {
+        return ResponseEntity.ok(userService.findViewsByRole(User.Role.CLIENT));
     }
 }
@@ -0,0 +1,71 @@
+package com.projecttracker.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is opaque to clients: pass it back
+ * as the {@code cursor} parameter to get the following page; it is null on the last page.
+ */
+public class CursorPage<T> {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private List<T> items;
+    private String nextCursor;
+
+    public CursorPage() {}
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Clamps a requested page size to 1..{@link #MAX_PAGE_SIZE}.
+     */
+    public static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Builds a page from a query that fetched up to {@code pageSize + 1} rows; the extra row only
+     * signals that another page exists and is dropped.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int pageSize, Function<? super T, String> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new CursorPage<>(items, cursorOf.apply(items.get(pageSize - 1)));
+    }
+
+    public static <T> CursorPage<T> empty() {
+        return new CursorPage<>(List.of(), null);
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = new ArrayList<>(items.size());
+        for (T item : items) {
+            mapped.add(mapper.apply(item));
+        }
+        return new CursorPage<>(mapped, nextCursor);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
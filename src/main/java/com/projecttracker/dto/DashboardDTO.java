@@ -0,0 +1,60 @@
+package com.projecttracker.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary figures for a dashboard. The project and user lists themselves are paged separately
+ * through /api/projects and /api/users.
+ */
+public class DashboardDTO {
+    private Map<String, Long> projectStatusCounts;
+    private Map<String, Long> milestoneStatusCounts;
+    private Map<String, Long> userRoleCounts;
+    private double averageProgress;
+    private List<MilestoneDTO> recentMilestones;
+
+    // Constructors
+    public DashboardDTO() {}
+
+    // Getters and Setters
+    public Map<String, Long> getProjectStatusCounts() {
+        return projectStatusCounts;
+    }
+
+    public void setProjectStatusCounts(Map<String, Long> projectStatusCounts) {
+        this.projectStatusCounts = projectStatusCounts;
+    }
+
+    public Map<String, Long> getMilestoneStatusCounts() {
+        return milestoneStatusCounts;
+    }
+
+    public void setMilestoneStatusCounts(Map<String, Long> milestoneStatusCounts) {
+        this.milestoneStatusCounts = milestoneStatusCounts;
+    }
+
+    public Map<String, Long> getUserRoleCounts() {
+        return userRoleCounts;
+    }
+
+    public void setUserRoleCounts(Map<String, Long> userRoleCounts) {
+        this.userRoleCounts = userRoleCounts;
+    }
+
+    public double getAverageProgress() {
+        return averageProgress;
+    }
+
+    public void setAverageProgress(double averageProgress) {
+        this.averageProgress = averageProgress;
+    }
+
+    public List<MilestoneDTO> getRecentMilestones() {
+        return recentMilestones;
+    }
+
+    public void setRecentMilestones(List<MilestoneDTO> recentMilestones) {
+        this.recentMilestones = recentMilestones;
+    }
+}
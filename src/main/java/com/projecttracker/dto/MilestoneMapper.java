@@ -0,0 +1,32 @@
+package com.projecttracker.dto;
+
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+
+public class MilestoneMapper {
+    
+    public static MilestoneDTO toDTO(Milestone milestone, Project project) {
+        if (milestone == null) {
+            return null;
+        }
+        
+        MilestoneDTO dto = new MilestoneDTO();
+        dto.setId(milestone.getId());
+        dto.setTitle(milestone.getTitle());
+        dto.setDescription(milestone.getDescription());
+        dto.setSequenceOrder(milestone.getSequenceOrder());
+        dto.setStatus(milestone.getStatus() != null ? milestone.getStatus().toString() : null);
+        dto.setDueDate(milestone.getDueDate());
+        dto.setCompletedAt(milestone.getCompletedAt());
+        dto.setCreatedAt(milestone.getCreatedAt());
+        dto.setUpdatedAt(milestone.getUpdatedAt());
+        dto.setVersion(milestone.getVersion());
+        
+        if (project != null) {
+            dto.setProjectId(project.getId());
+            dto.setProjectName(project.getName());
+        }
+        
+        return dto;
+    }
+}
@@ -0,0 +1,31 @@
+package com.projecttracker.dto;
+
+import java.util.List;
+
+/**
+ * Body of {@code PUT /api/milestones/project/{projectId}/order}: the milestones to move, in their
+ * new order, and the milestone they go after ({@code null} for the front). All of the project's
+ * milestones with no anchor sets the full order.
+ */
+public class MilestoneOrderRequest {
+    private List<Long> milestoneIds;
+    private Long afterId;
+
+    public MilestoneOrderRequest() {}
+
+    public List<Long> getMilestoneIds() {
+        return milestoneIds;
+    }
+
+    public void setMilestoneIds(List<Long> milestoneIds) {
+        this.milestoneIds = milestoneIds;
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+}
@@ -0,0 +1,31 @@
+package com.projecttracker.dto;
+
+import com.projecttracker.entity.Milestone;
+
+/**
+ * One cell of a per-project milestone status histogram, built by a
+ * {@code GROUP BY project, status} query.
+ */
+public class MilestoneStatusCount {
+    private final Long projectId;
+    private final Milestone.MilestoneStatus status;
+    private final long count;
+
+    public MilestoneStatusCount(Long projectId, Milestone.MilestoneStatus status, long count) {
+        this.projectId = projectId;
+        this.status = status;
+        this.count = count;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public Milestone.MilestoneStatus getStatus() {
+        return status;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,84 @@
+package com.projecttracker.dto;
+
+import com.projecttracker.entity.Milestone;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only milestone row built by a constructor-expression query, so serving it creates no
+ * managed entity. Carries the same JSON fields as the {@link Milestone} entity plus its projectId.
+ */
+public class MilestoneView {
+    private final Long id;
+    private final Long projectId;
+    private final String title;
+    private final String description;
+    private final Integer sequenceOrder;
+    private final Milestone.MilestoneStatus status;
+    private final LocalDate dueDate;
+    private final LocalDateTime completedAt;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final Long version;
+
+    public MilestoneView(Long id, Long projectId, String title, String description, Integer sequenceOrder,
+                         Milestone.MilestoneStatus status, LocalDate dueDate, LocalDateTime completedAt,
+                         LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this.id = id;
+        this.projectId = projectId;
+        this.title = title;
+        this.description = description;
+        this.sequenceOrder = sequenceOrder;
+        this.status = status;
+        this.dueDate = dueDate;
+        this.completedAt = completedAt;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Integer getSequenceOrder() {
+        return sequenceOrder;
+    }
+
+    public Milestone.MilestoneStatus getStatus() {
+        return status;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
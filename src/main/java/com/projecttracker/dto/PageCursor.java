@@ -0,0 +1,41 @@
+package com.projecttracker.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the sort key of the last row on a page into an opaque, URL-safe cursor and back.
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {}
+
+    public static String encode(Object... keys) {
+        StringBuilder value = new StringBuilder();
+        for (Object key : keys) {
+            if (value.length() > 0) {
+                value.append(SEPARATOR);
+            }
+            value.append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed or has the wrong number of keys
+     */
+    public static String[] decode(String cursor, int keyCount) {
+        String[] keys;
+        try {
+            keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (keys.length != keyCount) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return keys;
+    }
+}
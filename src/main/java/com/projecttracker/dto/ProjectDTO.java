@@ -10,12 +10,17 @@ public class ProjectDTO {
     private LocalDate startDate;
     private LocalDate endDate;
     private Integer progressPercentage;
+    private Integer totalMilestones;
+    private Integer completedMilestones;
+    private Integer inProgressMilestones;
+    private Integer notStartedMilestones;
     private Long clientId;
     private String clientName;
     private Long managerId;
     private String managerName;
     private String createdAt;
     private String updatedAt;
+    private Long version;
 
     // Constructors
     public ProjectDTO() {}
@@ -77,6 +82,38 @@ public class ProjectDTO {
         this.progressPercentage = progressPercentage;
     }
 
+    public Integer getTotalMilestones() {
+        return totalMilestones;
+    }
+
+    public void setTotalMilestones(Integer totalMilestones) {
+        this.totalMilestones = totalMilestones;
+    }
+
+    public Integer getCompletedMilestones() {
+        return completedMilestones;
+    }
+
+    public void setCompletedMilestones(Integer completedMilestones) {
+        this.completedMilestones = completedMilestones;
+    }
+
+    public Integer getInProgressMilestones() {
+        return inProgressMilestones;
+    }
+
+    public void setInProgressMilestones(Integer inProgressMilestones) {
+        this.inProgressMilestones = inProgressMilestones;
+    }
+
+    public Integer getNotStartedMilestones() {
+        return notStartedMilestones;
+    }
+
+    public void setNotStartedMilestones(Integer notStartedMilestones) {
+        this.notStartedMilestones = notStartedMilestones;
+    }
+
     public Long getClientId() {
         return clientId;
     }
@@ -124,4 +161,12 @@ public class ProjectDTO {
     public void setUpdatedAt(String updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
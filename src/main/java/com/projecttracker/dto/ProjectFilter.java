@@ -0,0 +1,59 @@
+package com.projecttracker.dto;
+
+import com.projecttracker.entity.Project;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters for the project listing; null fields do not restrict the result.
+ * The start-date range is inclusive on both ends.
+ */
+public class ProjectFilter {
+    private Project.ProjectStatus status;
+    private Long clientId;
+    private Long managerId;
+    private LocalDate startFrom;
+    private LocalDate startTo;
+
+    public ProjectFilter() {}
+
+    public Project.ProjectStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Project.ProjectStatus status) {
+        this.status = status;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public Long getManagerId() {
+        return managerId;
+    }
+
+    public void setManagerId(Long managerId) {
+        this.managerId = managerId;
+    }
+
+    public LocalDate getStartFrom() {
+        return startFrom;
+    }
+
+    public void setStartFrom(LocalDate startFrom) {
+        this.startFrom = startFrom;
+    }
+
+    public LocalDate getStartTo() {
+        return startTo;
+    }
+
+    public void setStartTo(LocalDate startTo) {
+        this.startTo = startTo;
+    }
+}
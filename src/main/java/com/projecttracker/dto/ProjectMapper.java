@@ -22,6 +22,10 @@ public class ProjectMapper {
         dto.setStartDate(project.getStartDate());
         dto.setEndDate(project.getEndDate());
         dto.setProgressPercentage((int) Math.round(project.getProgressPercentage()));
+        dto.setTotalMilestones(project.getTotalMilestones());
+        dto.setCompletedMilestones(project.getCompletedMilestones());
+        dto.setInProgressMilestones(project.getInProgressMilestones());
+        dto.setNotStartedMilestones(project.getNotStartedMilestones());
         
         if (project.getClient() != null) {
             dto.setClientId(project.getClient().getId());
@@ -40,6 +44,7 @@ public class ProjectMapper {
         if (project.getUpdatedAt() != null) {
             dto.setUpdatedAt(project.getUpdatedAt().format(DATE_FORMATTER));
         }
+        dto.setVersion(project.getVersion());
         
         return dto;
     }
@@ -0,0 +1,57 @@
+package com.projecttracker.dto;
+
+import com.projecttracker.entity.Project;
+
+/**
+ * Aggregates over the projects in one status, built by a {@code GROUP BY status} query: the
+ * project count, the sums of their milestone counters and the sum of their progress percentages.
+ */
+public class ProjectStatusSummary {
+    private final Project.ProjectStatus status;
+    private final long projectCount;
+    private final long totalMilestones;
+    private final long completedMilestones;
+    private final long inProgressMilestones;
+    private final long notStartedMilestones;
+    private final double progressSum;
+
+    public ProjectStatusSummary(Project.ProjectStatus status, long projectCount, long totalMilestones,
+                                long completedMilestones, long inProgressMilestones, long notStartedMilestones,
+                                double progressSum) {
+        this.status = status;
+        this.projectCount = projectCount;
+        this.totalMilestones = totalMilestones;
+        this.completedMilestones = completedMilestones;
+        this.inProgressMilestones = inProgressMilestones;
+        this.notStartedMilestones = notStartedMilestones;
+        this.progressSum = progressSum;
+    }
+
+    public Project.ProjectStatus getStatus() {
+        return status;
+    }
+
+    public long getProjectCount() {
+        return projectCount;
+    }
+
+    public long getTotalMilestones() {
+        return totalMilestones;
+    }
+
+    public long getCompletedMilestones() {
+        return completedMilestones;
+    }
+
+    public long getInProgressMilestones() {
+        return inProgressMilestones;
+    }
+
+    public long getNotStartedMilestones() {
+        return notStartedMilestones;
+    }
+
+    public double getProgressSum() {
+        return progressSum;
+    }
+}
@@ -0,0 +1,41 @@
+package com.projecttracker.dto;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One row of a {@code GROUP BY status} (or role) count, built by a constructor-expression query.
+ */
+public class StatusCount<S extends Enum<S>> {
+    private final S status;
+    private final long count;
+
+    public StatusCount(S status, long count) {
+        this.status = status;
+        this.count = count;
+    }
+
+    public S getStatus() {
+        return status;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Collects grouped counts into a map holding every constant of the enum, in declaration
+     * order, with zero for the values the query returned no row for.
+     */
+    public static <S extends Enum<S>> Map<S, Long> toMap(Class<S> type, List<StatusCount<S>> counts) {
+        Map<S, Long> map = new EnumMap<>(type);
+        for (S status : type.getEnumConstants()) {
+            map.put(status, 0L);
+        }
+        for (StatusCount<S> count : counts) {
+            map.put(count.getStatus(), count.getCount());
+        }
+        return map;
+    }
+}
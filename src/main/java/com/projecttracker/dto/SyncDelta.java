@@ -0,0 +1,76 @@
+package com.projecttracker.dto;
+
+import java.util.List;
+
+/**
+ * Rows changed since a sync watermark. Pass {@code watermark} back as {@code since} on the next
+ * call. When {@code reset} is true the lists are empty and the client must reload everything
+ * through the regular listings before syncing from the new watermark.
+ */
+public class SyncDelta {
+    private String watermark;
+    private boolean reset;
+    private List<ProjectDTO> projects = List.of();
+    private List<MilestoneView> milestones = List.of();
+    private List<UserView> users = List.of();
+    private List<TombstoneDTO> deleted = List.of();
+
+    // Constructors
+    public SyncDelta() {}
+
+    public static SyncDelta reset(String watermark) {
+        SyncDelta delta = new SyncDelta();
+        delta.setWatermark(watermark);
+        delta.setReset(true);
+        return delta;
+    }
+
+    // Getters and Setters
+    public String getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(String watermark) {
+        this.watermark = watermark;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+
+    public List<ProjectDTO> getProjects() {
+        return projects;
+    }
+
+    public void setProjects(List<ProjectDTO> projects) {
+        this.projects = projects;
+    }
+
+    public List<MilestoneView> getMilestones() {
+        return milestones;
+    }
+
+    public void setMilestones(List<MilestoneView> milestones) {
+        this.milestones = milestones;
+    }
+
+    public List<UserView> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserView> users) {
+        this.users = users;
+    }
+
+    public List<TombstoneDTO> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<TombstoneDTO> deleted) {
+        this.deleted = deleted;
+    }
+}
@@ -0,0 +1,39 @@
+package com.projecttracker.dto;
+
+import com.projecttracker.entity.Tombstone;
+
+import java.time.LocalDateTime;
+
+/**
+ * A deleted (or no longer visible) row in a sync delta. Dropping a project also drops its
+ * milestones.
+ */
+public class TombstoneDTO {
+    private final Tombstone.EntityType type;
+    private final Long id;
+    private final Long projectId;
+    private final LocalDateTime deletedAt;
+
+    public TombstoneDTO(Tombstone tombstone) {
+        this.type = tombstone.getEntityType();
+        this.id = tombstone.getEntityId();
+        this.projectId = tombstone.getProjectId();
+        this.deletedAt = tombstone.getDeletedAt();
+    }
+
+    public Tombstone.EntityType getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
@@ -0,0 +1,52 @@
+package com.projecttracker.dto;
+
+import com.projecttracker.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only user row for the admin APIs, built by a constructor-expression query. The password
+ * hash and the project collections are never selected.
+ */
+public class UserView {
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final User.Role role;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public UserView(Long id, String username, String email, User.Role role,
+                    LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.role = role;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public User.Role getRole() {
+        return role;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
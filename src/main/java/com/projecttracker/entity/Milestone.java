@@ -10,9 +10,19 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "milestones")
+@Table(name = "milestones", indexes = {
+    @Index(name = "idx_milestones_project_sequence", columnList = "project_id, sequence_order"),
+    @Index(name = "idx_milestones_project_status", columnList = "project_id, status"),
+    @Index(name = "idx_milestones_updated_at", columnList = "updated_at")
+})
 public class Milestone {
     
+    /**
+     * Distance between consecutive sequence numbers as allocated and rebalanced, so a milestone can
+     * be moved between two others by rewriting only its own number.
+     */
+    public static final int SEQUENCE_GAP = 1024;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -29,8 +39,10 @@ public class Milestone {
     @Column(columnDefinition = "TEXT")
     private String description;
     
+    // Set on insert and afterwards changed only by MilestoneService's reorder UPDATEs, so an edit
+    // never writes back a stale position and a reorder never makes an edit conflict
     @NotNull
-    @Column(name = "sequence_order")
+    @Column(name = "sequence_order", updatable = false)
     private Integer sequenceOrder;
     
     @Enumerated(EnumType.STRING)
@@ -49,6 +61,10 @@ public class Milestone {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     public enum MilestoneStatus {
         NOT_STARTED, IN_PROGRESS, COMPLETED
     }
@@ -108,4 +124,7 @@ public class Milestone {
     
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -4,12 +4,22 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "projects")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "projects")
+@Table(name = "projects", indexes = {
+    @Index(name = "idx_projects_manager_status", columnList = "manager_id, status"),
+    @Index(name = "idx_projects_client_status", columnList = "client_id, status"),
+    @Index(name = "idx_projects_by_status", columnList = "status"),
+    @Index(name = "idx_projects_updated_at", columnList = "updated_at")
+})
 public class Project {
     
     @Id
@@ -47,8 +57,35 @@ public class Project {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Incremented on every entity update; the milestone counter UPDATEs below leave it alone, so
+    // milestone activity never makes a project edit conflict
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
+    // Milestone counters are maintained by MilestoneService through atomic UPDATE statements,
+    // so they are never written back from (possibly stale) entity state.
+    @Column(name = "total_milestones", nullable = false, updatable = false)
+    private int totalMilestones = 0;
+    
+    @Column(name = "completed_milestones", nullable = false, updatable = false)
+    private int completedMilestones = 0;
+    
+    @Column(name = "in_progress_milestones", nullable = false, updatable = false)
+    private int inProgressMilestones = 0;
+    
+    @Column(name = "not_started_milestones", nullable = false, updatable = false)
+    private int notStartedMilestones = 0;
+    
+    // Next free milestone sequence number, reserved through ProjectRepository.reserveMilestoneSequences;
+    // always above every milestone's, so it also bounds a move to the end of the list
+    @Column(name = "next_sequence", nullable = false, updatable = false)
+    private int nextSequence = Milestone.SEQUENCE_GAP;
+    
+    // Initializing one project's milestones loads the next 50 projects' collections in the same select
     @OneToMany(mappedBy = "project", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @OrderBy("sequenceOrder ASC")
+    @BatchSize(size = 50)
     @JsonIgnore
     private List<Milestone> milestones;
     
@@ -77,13 +114,10 @@ public class Project {
     }
     
     public double getProgressPercentage() {
-        if (milestones == null || milestones.isEmpty()) {
+        if (totalMilestones <= 0) {
             return 0.0;
         }
-        long completedCount = milestones.stream()
-                .filter(m -> m.getStatus() == Milestone.MilestoneStatus.COMPLETED)
-                .count();
-        return (double) completedCount / milestones.size() * 100;
+        return (double) completedMilestones / totalMilestones * 100;
     }
     
     // Getters and Setters
@@ -117,6 +151,23 @@ public class Project {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
+    public int getTotalMilestones() { return totalMilestones; }
+    public void setTotalMilestones(int totalMilestones) { this.totalMilestones = totalMilestones; }
+    
+    public int getCompletedMilestones() { return completedMilestones; }
+    public void setCompletedMilestones(int completedMilestones) { this.completedMilestones = completedMilestones; }
+    
+    public int getInProgressMilestones() { return inProgressMilestones; }
+    public void setInProgressMilestones(int inProgressMilestones) { this.inProgressMilestones = inProgressMilestones; }
+    
+    public int getNotStartedMilestones() { return notStartedMilestones; }
+    public void setNotStartedMilestones(int notStartedMilestones) { this.notStartedMilestones = notStartedMilestones; }
+    
+    public int getNextSequence() { return nextSequence; }
+    
     public List<Milestone> getMilestones() { return milestones; }
     public void setMilestones(List<Milestone> milestones) { this.milestones = milestones; }
 }
@@ -0,0 +1,79 @@
+package com.projecttracker.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Record of a deleted project, milestone or user, so {@code /api/sync} can tell clients to drop
+ * it. The owning project's client and manager are copied at deletion time, since the project may
+ * be gone too. A project tombstone is also written for the previous owners when a project is
+ * reassigned, because it leaves their view.
+ */
+@Entity
+@Table(name = "tombstones", indexes = @Index(name = "idx_tombstones_deleted_at", columnList = "deleted_at"))
+public class Tombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Column(name = "client_id")
+    private Long clientId;
+
+    @Column(name = "manager_id")
+    private Long managerId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public enum EntityType {
+        PROJECT, MILESTONE, USER
+    }
+
+    public Tombstone() {}
+
+    public Tombstone(EntityType entityType, Long entityId, Long projectId, Long clientId, Long managerId) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.projectId = projectId;
+        this.clientId = clientId;
+        this.managerId = managerId;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        deletedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public EntityType getEntityType() { return entityType; }
+    public void setEntityType(EntityType entityType) { this.entityType = entityType; }
+
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+
+    public Long getProjectId() { return projectId; }
+    public void setProjectId(Long projectId) { this.projectId = projectId; }
+
+    public Long getClientId() { return clientId; }
+    public void setClientId(Long clientId) { this.clientId = clientId; }
+
+    public Long getManagerId() { return managerId; }
+    public void setManagerId(Long managerId) { this.managerId = managerId; }
+
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
+}
@@ -0,0 +1,11 @@
+package com.projecttracker.repository;
+
+/**
+ * A milestone's place in its project's order, without loading the entity.
+ */
+public interface MilestonePosition {
+    
+    Long getId();
+    
+    Integer getSequenceOrder();
+}
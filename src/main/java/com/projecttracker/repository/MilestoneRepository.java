@@ -1,14 +1,25 @@
 package com.projecttracker.repository;
 
+import com.projecttracker.dto.MilestoneStatusCount;
+import com.projecttracker.dto.MilestoneView;
 import com.projecttracker.entity.Milestone;
 import com.projecttracker.entity.Project;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MilestoneRepository extends JpaRepository<Milestone, Long> {
@@ -19,12 +30,133 @@ public interface MilestoneRepository extends JpaRepository<Milestone, Long> {
     
     List<Milestone> findByStatus(Milestone.MilestoneStatus status);
     
+    /**
+     * Keyset page of a project's milestones in roadmap order. Null filter arguments are ignored;
+     * afterSequence/afterId are the sort key of the last row of the previous page.
+     */
+    @Query("SELECT new com.projecttracker.dto.MilestoneView(m.id, m.project.id, m.title, m.description, m.sequenceOrder, "
+            + "m.status, m.dueDate, m.completedAt, m.createdAt, m.updatedAt, m.version) "
+            + "FROM Milestone m WHERE m.project.id = :projectId "
+            + "AND (:status IS NULL OR m.status = :status) "
+            + "AND (:dueFrom IS NULL OR m.dueDate >= :dueFrom) "
+            + "AND (:dueTo IS NULL OR m.dueDate <= :dueTo) "
+            + "AND (:afterSequence IS NULL OR m.sequenceOrder > :afterSequence "
+            + "OR (m.sequenceOrder = :afterSequence AND m.id > :afterId)) "
+            + "ORDER BY m.sequenceOrder, m.id")
+    List<MilestoneView> findViewPageByProjectId(@Param("projectId") Long projectId,
+                                                @Param("status") Milestone.MilestoneStatus status,
+                                                @Param("dueFrom") LocalDate dueFrom,
+                                                @Param("dueTo") LocalDate dueTo,
+                                                @Param("afterSequence") Integer afterSequence,
+                                                @Param("afterId") Long afterId,
+                                                Limit limit);
+    
+    /**
+     * Milestones updated after {@code since}, oldest change first, optionally restricted to the
+     * projects of a client or manager.
+     */
+    @Query("SELECT new com.projecttracker.dto.MilestoneView(m.id, m.project.id, m.title, m.description, m.sequenceOrder, "
+            + "m.status, m.dueDate, m.completedAt, m.createdAt, m.updatedAt, m.version) "
+            + "FROM Milestone m WHERE m.updatedAt > :since "
+            + "AND (:clientId IS NULL OR m.project.client.id = :clientId) "
+            + "AND (:managerId IS NULL OR m.project.manager.id = :managerId) "
+            + "ORDER BY m.updatedAt, m.id")
+    List<MilestoneView> findViewsChangedSince(@Param("since") LocalDateTime since,
+                                              @Param("clientId") Long clientId,
+                                              @Param("managerId") Long managerId,
+                                              Limit limit);
+    
+    @Query("SELECT m FROM Milestone m JOIN FETCH m.project p "
+            + "WHERE (:clientId IS NULL OR p.client.id = :clientId) "
+            + "AND (:managerId IS NULL OR p.manager.id = :managerId) "
+            + "ORDER BY m.updatedAt DESC, m.id DESC")
+    List<Milestone> findRecent(@Param("clientId") Long clientId, @Param("managerId") Long managerId, Limit limit);
+    
+    @Query("SELECT new com.projecttracker.dto.MilestoneView(m.id, m.project.id, m.title, m.description, m.sequenceOrder, "
+            + "m.status, m.dueDate, m.completedAt, m.createdAt, m.updatedAt, m.version) "
+            + "FROM Milestone m WHERE m.id = :id")
+    Optional<MilestoneView> findViewById(@Param("id") Long id);
+    
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT m FROM Milestone m WHERE m.project.id = :projectId ORDER BY m.sequenceOrder")
+    Stream<Milestone> streamByProjectId(@Param("projectId") Long projectId);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT m FROM Milestone m JOIN FETCH m.project p JOIN FETCH p.client JOIN FETCH p.manager "
+            + "WHERE p.client.id = :clientId ORDER BY p.id, m.sequenceOrder")
+    Stream<Milestone> streamByClientId(@Param("clientId") Long clientId);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT m FROM Milestone m JOIN FETCH m.project p JOIN FETCH p.client JOIN FETCH p.manager "
+            + "WHERE p.manager.id = :managerId ORDER BY p.id, m.sequenceOrder")
+    Stream<Milestone> streamByManagerId(@Param("managerId") Long managerId);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT m FROM Milestone m JOIN FETCH m.project p JOIN FETCH p.client JOIN FETCH p.manager "
+            + "ORDER BY p.id, m.sequenceOrder")
+    Stream<Milestone> streamAllWithProject();
+    
     @Query("SELECT m FROM Milestone m WHERE m.project.id = :projectId AND m.sequenceOrder = :sequenceOrder")
     Optional<Milestone> findByProjectAndSequenceOrder(@Param("projectId") Long projectId, @Param("sequenceOrder") Integer sequenceOrder);
     
+    /**
+     * Marks all of a project's milestones as changed, so delta sync sends them to whoever the
+     * project was just assigned to.
+     */
+    @Modifying
+    @Query("UPDATE VERSIONED Milestone m SET m.updatedAt = :updatedAt WHERE m.project.id = :projectId")
+    int touchByProjectId(@Param("projectId") Long projectId, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Query("SELECT m.id AS id, m.sequenceOrder AS sequenceOrder FROM Milestone m "
+            + "WHERE m.project.id = :projectId ORDER BY m.sequenceOrder, m.id")
+    List<MilestonePosition> findPositionsByProjectId(@Param("projectId") Long projectId);
+    
+    @Query("SELECT m.id AS id, m.sequenceOrder AS sequenceOrder FROM Milestone m "
+            + "WHERE m.project.id = :projectId AND m.id IN :ids")
+    List<MilestonePosition> findPositionsByProjectIdAndIdIn(@Param("projectId") Long projectId, @Param("ids") Collection<Long> ids);
+    
+    /**
+     * Sequence numbers following the given position in list order (all of them if it is null),
+     * skipping the excluded milestones.
+     */
+    @Query("SELECT m.sequenceOrder FROM Milestone m WHERE m.project.id = :projectId AND m.id NOT IN :excludedIds "
+            + "AND (:afterSequence IS NULL OR m.sequenceOrder > :afterSequence "
+            + "OR (m.sequenceOrder = :afterSequence AND m.id > :afterId)) "
+            + "ORDER BY m.sequenceOrder, m.id")
+    List<Integer> findSequenceOrdersAfter(@Param("projectId") Long projectId,
+                                          @Param("afterSequence") Integer afterSequence,
+                                          @Param("afterId") Long afterId,
+                                          @Param("excludedIds") Collection<Long> excludedIds,
+                                          Limit limit);
+    
+    // Not VERSIONED: a reorder must not make a concurrent edit of the same milestone conflict.
+    // updated_at still moves, so list ETags and delta sync pick up the new order.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "milestones"))
+    @Query(value = "UPDATE milestones SET sequence_order = :sequenceOrder, updated_at = :updatedAt WHERE id = :id", nativeQuery = true)
+    int updateSequenceOrder(@Param("id") Long id, @Param("sequenceOrder") int sequenceOrder, @Param("updatedAt") LocalDateTime updatedAt);
+    
     @Query("SELECT COUNT(m) FROM Milestone m WHERE m.project.id = :projectId AND m.status = :status")
     long countByProjectAndStatus(@Param("projectId") Long projectId, @Param("status") Milestone.MilestoneStatus status);
     
-    @Query("SELECT MAX(m.sequenceOrder) FROM Milestone m WHERE m.project.id = :projectId")
-    Integer findMaxSequenceOrderByProjectId(@Param("projectId") Long projectId);
+    /**
+     * Milestone status histograms for many projects in one round trip. Status/project pairs
+     * without milestones have no row.
+     */
+    @Query("SELECT new com.projecttracker.dto.MilestoneStatusCount(m.project.id, m.status, COUNT(m)) "
+            + "FROM Milestone m WHERE m.project.id IN :projectIds GROUP BY m.project.id, m.status")
+    List<MilestoneStatusCount> countGroupedByProjectAndStatus(@Param("projectIds") Collection<Long> projectIds);
+    
+    @Query("SELECT COUNT(m) AS count, MAX(m.updatedAt) AS lastUpdated FROM Milestone m")
+    VersionStamp getVersionStamp();
+    
+    @Query("SELECT COUNT(m) AS count, MAX(m.updatedAt) AS lastUpdated FROM Milestone m WHERE m.project.id = :projectId")
+    VersionStamp getVersionStampByProjectId(@Param("projectId") Long projectId);
+    
+    @Query("SELECT COUNT(m) AS count, MAX(m.updatedAt) AS lastUpdated FROM Milestone m WHERE m.project.client.id = :clientId")
+    VersionStamp getVersionStampByClientId(@Param("clientId") Long clientId);
+    
+    @Query("SELECT COUNT(m) AS count, MAX(m.updatedAt) AS lastUpdated FROM Milestone m WHERE m.project.manager.id = :managerId")
+    VersionStamp getVersionStampByManagerId(@Param("managerId") Long managerId);
 }
@@ -1,26 +1,190 @@
 package com.projecttracker.repository;
 
+import com.projecttracker.dto.ProjectStatusSummary;
+import com.projecttracker.dto.StatusCount;
 import com.projecttracker.entity.Project;
 import com.projecttracker.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
     
+    /**
+     * Query space of the native UPDATEs that change one project row. It names no entity table, so
+     * Hibernate does not clear the whole projects cache region after them; ProjectService evicts
+     * the single project instead.
+     */
+    String PROJECT_ROW_SPACE = "project-row";
+    
     List<Project> findByClient(User client);
     
     List<Project> findByManager(User manager);
     
     List<Project> findByStatus(Project.ProjectStatus status);
     
+    @Query("SELECT p.id FROM Project p ORDER BY p.id")
+    List<Long> findAllIds();
+    
+    @EntityGraph(attributePaths = {"client", "manager"})
+    Optional<Project> findWithUsersById(Long id);
+    
+    @Query("SELECT p FROM Project p JOIN FETCH p.client JOIN FETCH p.manager")
+    List<Project> findAllWithUsers();
+    
+    @Query("SELECT p FROM Project p JOIN FETCH p.client JOIN FETCH p.manager WHERE p.client = :client")
+    List<Project> findByClientWithUsers(@Param("client") User client);
+    
+    @Query("SELECT p FROM Project p JOIN FETCH p.client JOIN FETCH p.manager WHERE p.manager = :manager")
+    List<Project> findByManagerWithUsers(@Param("manager") User manager);
+    
+    /**
+     * Keyset page of projects, most recently updated first. Null filter arguments are ignored;
+     * afterUpdatedAt/afterId are the sort key of the last row of the previous page.
+     */
+    @Query("SELECT p FROM Project p JOIN FETCH p.client JOIN FETCH p.manager "
+            + "WHERE (:status IS NULL OR p.status = :status) "
+            + "AND (:clientId IS NULL OR p.client.id = :clientId) "
+            + "AND (:managerId IS NULL OR p.manager.id = :managerId) "
+            + "AND (:startFrom IS NULL OR p.startDate >= :startFrom) "
+            + "AND (:startTo IS NULL OR p.startDate <= :startTo) "
+            + "AND (:afterUpdatedAt IS NULL OR p.updatedAt < :afterUpdatedAt "
+            + "OR (p.updatedAt = :afterUpdatedAt AND p.id < :afterId)) "
+            + "ORDER BY p.updatedAt DESC, p.id DESC")
+    List<Project> findPage(@Param("status") Project.ProjectStatus status,
+                           @Param("clientId") Long clientId,
+                           @Param("managerId") Long managerId,
+                           @Param("startFrom") LocalDate startFrom,
+                           @Param("startTo") LocalDate startTo,
+                           @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                           @Param("afterId") Long afterId,
+                           Limit limit);
+    
+    /**
+     * Projects updated after {@code since}, oldest change first, optionally restricted to a client
+     * or manager.
+     */
+    @Query("SELECT p FROM Project p JOIN FETCH p.client JOIN FETCH p.manager "
+            + "WHERE p.updatedAt > :since "
+            + "AND (:clientId IS NULL OR p.client.id = :clientId) "
+            + "AND (:managerId IS NULL OR p.manager.id = :managerId) "
+            + "ORDER BY p.updatedAt, p.id")
+    List<Project> findChangedSince(@Param("since") LocalDateTime since,
+                                   @Param("clientId") Long clientId,
+                                   @Param("managerId") Long managerId,
+                                   Limit limit);
+    
     @Query("SELECT p FROM Project p WHERE p.client.id = :clientId OR p.manager.id = :managerId")
     List<Project> findByClientOrManager(@Param("clientId") Long clientId, @Param("managerId") Long managerId);
     
     @Query("SELECT COUNT(p) FROM Project p WHERE p.status = :status")
     long countByStatus(@Param("status") Project.ProjectStatus status);
+    
+    @Query("SELECT new com.projecttracker.dto.StatusCount(p.status, COUNT(p)) FROM Project p GROUP BY p.status")
+    List<StatusCount<Project.ProjectStatus>> countGroupedByStatus();
+    
+    /**
+     * Project counts, milestone counter sums and progress sums per project status, in one grouped
+     * query over the (optionally client- or manager-restricted) projects. Statuses without any
+     * project have no row.
+     */
+    @Query("SELECT new com.projecttracker.dto.ProjectStatusSummary(p.status, COUNT(p), "
+            + "SUM(p.totalMilestones), SUM(p.completedMilestones), SUM(p.inProgressMilestones), "
+            + "SUM(p.notStartedMilestones), "
+            + "SUM(CASE WHEN p.totalMilestones > 0 THEN p.completedMilestones * 100.0 / p.totalMilestones ELSE 0.0 END)) "
+            + "FROM Project p "
+            + "WHERE (:clientId IS NULL OR p.client.id = :clientId) "
+            + "AND (:managerId IS NULL OR p.manager.id = :managerId) "
+            + "GROUP BY p.status")
+    List<ProjectStatusSummary> summarizeByStatus(@Param("clientId") Long clientId, @Param("managerId") Long managerId);
+    
+    @Query("SELECT COUNT(p) AS count, MAX(p.updatedAt) AS lastUpdated FROM Project p")
+    VersionStamp getVersionStamp();
+    
+    @Query("SELECT COUNT(p) AS count, MAX(p.updatedAt) AS lastUpdated FROM Project p WHERE p.id = :projectId")
+    VersionStamp getVersionStampById(@Param("projectId") Long projectId);
+    
+    @Query("SELECT COUNT(p) AS count, MAX(p.updatedAt) AS lastUpdated FROM Project p WHERE p.client.id = :clientId")
+    VersionStamp getVersionStampByClientId(@Param("clientId") Long clientId);
+    
+    @Query("SELECT COUNT(p) AS count, MAX(p.updatedAt) AS lastUpdated FROM Project p WHERE p.manager.id = :managerId")
+    VersionStamp getVersionStampByManagerId(@Param("managerId") Long managerId);
+    
+    /**
+     * Version data for conditional GETs. The milestone count and latest milestone update come
+     * from the (project_id, ...) indexes; the client and manager are joined for their
+     * {@code updatedAt} since project responses carry their names.
+     */
+    @Query("SELECT p.client.id AS clientId, p.manager.id AS managerId, p.updatedAt AS updatedAt, "
+            + "p.client.updatedAt AS clientUpdatedAt, p.manager.updatedAt AS managerUpdatedAt, "
+            + "(SELECT COUNT(m) FROM Milestone m WHERE m.project.id = p.id) AS milestoneCount, "
+            + "(SELECT MAX(m.updatedAt) FROM Milestone m WHERE m.project.id = p.id) AS milestonesUpdatedAt "
+            + "FROM Project p WHERE p.id = :projectId")
+    Optional<ProjectVersion> findVersionById(@Param("projectId") Long projectId);
+    
+    // Bumps updated_at as well: the project's progress changed, so delta sync must return it
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = PROJECT_ROW_SPACE))
+    @Query(value = "UPDATE projects SET total_milestones = total_milestones + :total, "
+            + "completed_milestones = completed_milestones + :completed, "
+            + "in_progress_milestones = in_progress_milestones + :inProgress, "
+            + "not_started_milestones = not_started_milestones + :notStarted, "
+            + "updated_at = :updatedAt "
+            + "WHERE id = :projectId", nativeQuery = true)
+    int adjustMilestoneCounters(@Param("projectId") Long projectId,
+                                @Param("total") int total,
+                                @Param("completed") int completed,
+                                @Param("inProgress") int inProgress,
+                                @Param("notStarted") int notStarted,
+                                @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Touches many projects (the repair job), so it declares the table and Hibernate clears the
+    // whole projects region rather than the whole second-level cache
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "projects"))
+    @Query(value = "UPDATE projects p SET "
+            + "total_milestones = (SELECT COUNT(*) FROM milestones m WHERE m.project_id = p.id), "
+            + "completed_milestones = (SELECT COUNT(*) FROM milestones m WHERE m.project_id = p.id AND m.status = 'COMPLETED'), "
+            + "in_progress_milestones = (SELECT COUNT(*) FROM milestones m WHERE m.project_id = p.id AND m.status = 'IN_PROGRESS'), "
+            + "not_started_milestones = (SELECT COUNT(*) FROM milestones m WHERE m.project_id = p.id AND m.status = 'NOT_STARTED'), "
+            + "updated_at = :updatedAt "
+            + "WHERE p.id IN (:projectIds)",
+            nativeQuery = true)
+    int recomputeMilestoneCounters(@Param("projectIds") Collection<Long> projectIds, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // The UPDATE row-locks the project until commit, so concurrent creates reserve disjoint ranges;
+    // the create transaction takes that lock anyway for the counter update. Matches no row if the
+    // counter is above maxFirst, i.e. the range would not fit in the INT column.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = PROJECT_ROW_SPACE))
+    @Query(value = "UPDATE projects SET next_sequence = next_sequence + :span "
+            + "WHERE id = :projectId AND next_sequence <= :maxFirst", nativeQuery = true)
+    int reserveMilestoneSequences(@Param("projectId") Long projectId, @Param("span") int span,
+                                  @Param("maxFirst") int maxFirst);
+    
+    @Query(value = "SELECT next_sequence FROM projects WHERE id = :projectId", nativeQuery = true)
+    Integer findNextSequence(@Param("projectId") Long projectId);
+    
+    // Reorders take the same row lock as creates, so neither sees the other's half-applied numbers
+    @Query(value = "SELECT next_sequence FROM projects WHERE id = :projectId FOR UPDATE", nativeQuery = true)
+    Integer lockNextSequence(@Param("projectId") Long projectId);
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = PROJECT_ROW_SPACE))
+    @Query(value = "UPDATE projects SET next_sequence = :nextSequence WHERE id = :projectId", nativeQuery = true)
+    int resetNextSequence(@Param("projectId") Long projectId, @Param("nextSequence") int nextSequence);
 }
@@ -0,0 +1,24 @@
+package com.projecttracker.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Owners and version data of one project and its milestones, read in a single query without
+ * loading any entity. Enough to check access and to build ETags for the project's endpoints.
+ */
+public interface ProjectVersion {
+
+    Long getClientId();
+
+    Long getManagerId();
+
+    LocalDateTime getUpdatedAt();
+
+    LocalDateTime getClientUpdatedAt();
+
+    LocalDateTime getManagerUpdatedAt();
+
+    long getMilestoneCount();
+
+    LocalDateTime getMilestonesUpdatedAt();
+}
@@ -0,0 +1,33 @@
+package com.projecttracker.repository;
+
+import com.projecttracker.entity.Tombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+    /**
+     * Tombstones written after {@code since}, oldest first. A non-null clientId or managerId keeps
+     * only the ones for that owner's projects (user tombstones have neither and are left out).
+     */
+    @Query("SELECT t FROM Tombstone t WHERE t.deletedAt > :since "
+            + "AND (:clientId IS NULL OR t.clientId = :clientId) "
+            + "AND (:managerId IS NULL OR t.managerId = :managerId) "
+            + "ORDER BY t.deletedAt, t.id")
+    List<Tombstone> findSince(@Param("since") LocalDateTime since,
+                              @Param("clientId") Long clientId,
+                              @Param("managerId") Long managerId,
+                              Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM Tombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,10 +1,20 @@
 package com.projecttracker.repository;
 
+import com.projecttracker.dto.StatusCount;
+import com.projecttracker.dto.UserView;
+import com.projecttracker.config.SecondLevelCacheConfig;
 import com.projecttracker.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,9 +28,32 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     boolean existsByEmail(String email);
     
-    @Query("SELECT u FROM User u WHERE u.role = 'MANAGER'")
-    java.util.List<User> findAllManagers();
+    @Query("SELECT new com.projecttracker.dto.StatusCount(u.role, COUNT(u)) FROM User u GROUP BY u.role")
+    List<StatusCount<User.Role>> countGroupedByRole();
     
-    @Query("SELECT u FROM User u WHERE u.role = 'CLIENT'")
-    java.util.List<User> findAllClients();
+    @Query("SELECT new com.projecttracker.dto.UserView(u.id, u.username, u.email, u.role, u.createdAt, u.updatedAt) "
+            + "FROM User u WHERE (:role IS NULL OR u.role = :role) AND (:afterId IS NULL OR u.id > :afterId) ORDER BY u.id")
+    List<UserView> findViewPage(@Param("role") User.Role role, @Param("afterId") Long afterId, Limit limit);
+    
+    @Query("SELECT new com.projecttracker.dto.UserView(u.id, u.username, u.email, u.role, u.createdAt, u.updatedAt) "
+            + "FROM User u WHERE u.updatedAt > :since ORDER BY u.updatedAt, u.id")
+    List<UserView> findViewsChangedSince(@Param("since") LocalDateTime since, Limit limit);
+    
+    /**
+     * Served from the query cache; any insert, update or delete on users invalidates the result.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.USER_LISTINGS_REGION)
+    })
+    @Query("SELECT new com.projecttracker.dto.UserView(u.id, u.username, u.email, u.role, u.createdAt, u.updatedAt) "
+            + "FROM User u WHERE u.role = :role ORDER BY u.id")
+    List<UserView> findViewsByRole(@Param("role") User.Role role);
+    
+    @Query("SELECT new com.projecttracker.dto.UserView(u.id, u.username, u.email, u.role, u.createdAt, u.updatedAt) "
+            + "FROM User u WHERE u.id = :id")
+    Optional<UserView> findViewById(@Param("id") Long id);
+    
+    @Query("SELECT COUNT(u) AS count, MAX(u.updatedAt) AS lastUpdated FROM User u")
+    VersionStamp getVersionStamp();
 }
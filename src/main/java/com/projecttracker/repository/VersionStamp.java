@@ -0,0 +1,14 @@
+package com.projecttracker.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count plus latest {@code updatedAt} of a set of rows. Two equal stamps mean nothing in the
+ * set was inserted, updated or deleted in between, which makes it a cheap cache validator.
+ */
+public interface VersionStamp {
+    
+    long getCount();
+    
+    LocalDateTime getLastUpdated();
+}
@@ -0,0 +1,83 @@
+package com.projecttracker.service;
+
+import com.projecttracker.dto.DashboardDTO;
+import com.projecttracker.dto.MilestoneDTO;
+import com.projecttracker.dto.MilestoneMapper;
+import com.projecttracker.dto.ProjectStatusSummary;
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class DashboardService {
+    
+    private static final int RECENT_MILESTONES = 5;
+    
+    @Autowired
+    private ProjectService projectService;
+    
+    @Autowired
+    private MilestoneService milestoneService;
+    
+    @Autowired
+    private UserService userService;
+    
+    /**
+     * Builds the summary figures for a dashboard. Project and milestone counts come from one
+     * query grouping the visible projects by status over their milestone counters, so neither
+     * project nor milestone rows are loaded apart from the few most recent milestones; the
+     * project and user lists are paged separately by the dashboards.
+     */
+    @Transactional(readOnly = true)
+    public DashboardDTO getDashboard(User user) {
+        Map<String, Long> projectStatusCounts = new LinkedHashMap<>();
+        for (Project.ProjectStatus status : Project.ProjectStatus.values()) {
+            projectStatusCounts.put(status.name(), 0L);
+        }
+        
+        long projectCount = 0;
+        long notStarted = 0;
+        long inProgress = 0;
+        long completed = 0;
+        double progressSum = 0;
+        for (ProjectStatusSummary summary : projectService.summarizeByStatusForUser(user)) {
+            projectStatusCounts.put(summary.getStatus().name(), summary.getProjectCount());
+            projectCount += summary.getProjectCount();
+            notStarted += summary.getNotStartedMilestones();
+            inProgress += summary.getInProgressMilestones();
+            completed += summary.getCompletedMilestones();
+            progressSum += summary.getProgressSum();
+        }
+        
+        Map<String, Long> milestoneStatusCounts = new LinkedHashMap<>();
+        milestoneStatusCounts.put(Milestone.MilestoneStatus.NOT_STARTED.name(), notStarted);
+        milestoneStatusCounts.put(Milestone.MilestoneStatus.IN_PROGRESS.name(), inProgress);
+        milestoneStatusCounts.put(Milestone.MilestoneStatus.COMPLETED.name(), completed);
+        
+        List<MilestoneDTO> recentMilestones = new ArrayList<>();
+        for (Milestone milestone : milestoneService.findRecentForUser(user, RECENT_MILESTONES)) {
+            recentMilestones.add(MilestoneMapper.toDTO(milestone, milestone.getProject()));
+        }
+        
+        DashboardDTO dashboard = new DashboardDTO();
+        dashboard.setProjectStatusCounts(projectStatusCounts);
+        dashboard.setMilestoneStatusCounts(milestoneStatusCounts);
+        dashboard.setAverageProgress(projectCount == 0 ? 0.0 : progressSum / projectCount);
+        dashboard.setRecentMilestones(recentMilestones);
+        
+        if (user.getRole() == User.Role.ADMIN) {
+            Map<String, Long> userRoleCounts = new LinkedHashMap<>();
+            userService.getRoleCounts().forEach((role, count) -> userRoleCounts.put(role.name(), count));
+            dashboard.setUserRoleCounts(userRoleCounts);
+        }
+        return dashboard;
+    }
+}
@@ -0,0 +1,69 @@
+package com.projecttracker.service;
+
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the denormalized milestone counters of every project against their milestone rows and
+ * recomputes the ones that drifted. Projects are checked in chunks, each with one grouped
+ * histogram query, so only drifted rows are written. Runs once at startup (so rows created
+ * before the counters existed are filled in) and then on a schedule to repair any drift from
+ * writes that bypassed MilestoneService.
+ */
+@Component
+public class MilestoneCounterRepairJob {
+    
+    private static final Logger log = LoggerFactory.getLogger(MilestoneCounterRepairJob.class);
+    
+    private static final int CHUNK_SIZE = 500;
+    
+    @Autowired
+    private ProjectService projectService;
+    
+    @Autowired
+    private MilestoneService milestoneService;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairOnStartup() {
+        repair();
+    }
+    
+    @Scheduled(cron = "${milestone.counters.repair-cron:0 0 3 * * *}")
+    public void repair() {
+        List<Long> projectIds = projectService.findAllIds();
+        int repaired = 0;
+        for (int from = 0; from < projectIds.size(); from += CHUNK_SIZE) {
+            repaired += repairChunk(projectIds.subList(from, Math.min(from + CHUNK_SIZE, projectIds.size())));
+        }
+        log.info("Checked milestone counters of {} projects, repaired {}", projectIds.size(), repaired);
+    }
+    
+    private int repairChunk(List<Long> projectIds) {
+        Map<Long, Map<Milestone.MilestoneStatus, Long>> histograms = milestoneService.getStatusHistograms(projectIds);
+        List<Long> drifted = new ArrayList<>();
+        for (Project project : projectService.findAllById(projectIds)) {
+            Map<Milestone.MilestoneStatus, Long> histogram = histograms.getOrDefault(project.getId(), Map.of());
+            long completed = histogram.getOrDefault(Milestone.MilestoneStatus.COMPLETED, 0L);
+            long inProgress = histogram.getOrDefault(Milestone.MilestoneStatus.IN_PROGRESS, 0L);
+            long notStarted = histogram.getOrDefault(Milestone.MilestoneStatus.NOT_STARTED, 0L);
+            if (project.getTotalMilestones() != completed + inProgress + notStarted
+                    || project.getCompletedMilestones() != completed
+                    || project.getInProgressMilestones() != inProgress
+                    || project.getNotStartedMilestones() != notStarted) {
+                drifted.add(project.getId());
+            }
+        }
+        return drifted.isEmpty() ? 0 : projectService.recomputeMilestoneCounters(drifted);
+    }
+}
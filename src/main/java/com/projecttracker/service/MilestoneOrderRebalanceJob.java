@@ -0,0 +1,44 @@
+package com.projecttracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Respaces the milestone order of projects where reordering has left narrow gaps, so later moves
+ * keep touching one row each instead of renumbering the project inline. Projects are queued by
+ * {@link MilestoneService#reorderMilestones}; each is rebalanced in its own transaction, and one
+ * that fails is queued again for the next run. The queue is in memory, so a restart drops it; the
+ * next move into an exhausted gap renumbers inline.
+ */
+@Component
+public class MilestoneOrderRebalanceJob {
+    
+    private static final Logger log = LoggerFactory.getLogger(MilestoneOrderRebalanceJob.class);
+    
+    @Autowired
+    private MilestoneService milestoneService;
+    
+    @Scheduled(fixedDelayString = "${milestone-order.rebalance-delay-ms:30000}")
+    public void rebalance() {
+        List<Long> projectIds = milestoneService.drainProjectsToRebalance();
+        int rebalanced = 0;
+        for (Long projectId : projectIds) {
+            // One failing project must not drop the rest of the drained queue
+            try {
+                milestoneService.rebalanceOrder(projectId);
+                rebalanced++;
+            } catch (RuntimeException e) {
+                log.warn("Rebalancing the milestone order of project {} failed, retrying on the next run", projectId, e);
+                milestoneService.requeueRebalance(projectId);
+            }
+        }
+        if (rebalanced > 0) {
+            log.info("Rebalanced the milestone order of {} projects", rebalanced);
+        }
+    }
+}
@@ -1,14 +1,38 @@
 package com.projecttracker.service;
 
+import com.projecttracker.dto.CursorPage;
+import com.projecttracker.dto.MilestoneStatusCount;
+import com.projecttracker.dto.MilestoneView;
+import com.projecttracker.dto.PageCursor;
 import com.projecttracker.entity.Milestone;
 import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+import com.projecttracker.repository.MilestonePosition;
 import com.projecttracker.repository.MilestoneRepository;
+import com.projecttracker.repository.VersionStamp;
+import com.projecttracker.service.stream.ChangeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 @Service
 public class MilestoneService {
@@ -19,16 +43,78 @@ public class MilestoneService {
     @Autowired
     private ProjectService projectService;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private TombstoneService tombstoneService;
+    
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${milestone-order.rebalance-below-gap:16}")
+    private int rebalanceBelowGap;
+    
+    // Projects whose order has gaps below rebalanceBelowGap, for MilestoneOrderRebalanceJob
+    private final Set<Long> projectsToRebalance = ConcurrentHashMap.newKeySet();
+    
     @Transactional
     public Milestone createMilestone(Milestone milestone) {
-        Integer maxSequence = milestoneRepository.findMaxSequenceOrderByProjectId(milestone.getProject().getId());
-        if (maxSequence != null) {
-            milestone.setSequenceOrder(maxSequence + 1);
-        } else {
-            milestone.setSequenceOrder(1);
+        return createMilestones(milestone.getProject(), List.of(milestone)).get(0);
+    }
+    
+    /**
+     * Appends the milestones to the project in list order, {@link Milestone#SEQUENCE_GAP} apart.
+     * Their sequence numbers are reserved as one block and the project's counters are adjusted
+     * once, so a batch costs the inserts plus three statements whatever its size.
+     * <p>
+     * The project's counter only grows, so deletes leave numbers unused. When the next block would
+     * not fit in an {@code int}, the project is renumbered first to take them back.
+     *
+     * @throws IllegalStateException if the project has too many milestones to number even then
+     */
+    @Transactional
+    public List<Milestone> createMilestones(Project project, List<Milestone> milestones) {
+        if (milestones.isEmpty()) {
+            return List.of();
+        }
+        int span;
+        try {
+            span = Math.multiplyExact(milestones.size(), Milestone.SEQUENCE_GAP);
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("Too many milestones to number in one batch");
+        }
+        Integer first = projectService.reserveMilestoneSequences(project.getId(), span);
+        if (first == null) {
+            projectService.lockMilestoneSequences(project.getId());
+            respace(project.getId(), "exhausted");
+            first = projectService.reserveMilestoneSequences(project.getId(), span);
+            if (first == null) {
+                throw new IllegalStateException("Project has too many milestones to number");
+            }
+        }
+        int sequence = first;
+        int[] deltas = new int[Milestone.MilestoneStatus.values().length];
+        List<Milestone> savedMilestones = new ArrayList<>(milestones.size());
+        for (Milestone milestone : milestones) {
+            milestone.setProject(project);
+            milestone.setSequenceOrder(sequence);
+            sequence += Milestone.SEQUENCE_GAP;
+            Milestone savedMilestone = milestoneRepository.save(milestone);
+            deltas[savedMilestone.getStatus().ordinal()]++;
+            savedMilestones.add(savedMilestone);
         }
         
-        return milestoneRepository.save(milestone);
+        projectService.adjustMilestoneCounters(project.getId(), savedMilestones.size(),
+                deltas[Milestone.MilestoneStatus.COMPLETED.ordinal()],
+                deltas[Milestone.MilestoneStatus.IN_PROGRESS.ordinal()],
+                deltas[Milestone.MilestoneStatus.NOT_STARTED.ordinal()]);
+        savedMilestones.forEach(savedMilestone ->
+                eventPublisher.publishEvent(ChangeEvent.forMilestone(ChangeEvent.CREATED, savedMilestone)));
+        return savedMilestones;
     }
     
     public Optional<Milestone> findById(Long id) {
@@ -39,60 +125,362 @@ public class MilestoneService {
         return milestoneRepository.findByProjectOrderBySequenceOrder(project);
     }
     
+    public Optional<MilestoneView> findViewById(Long id) {
+        return milestoneRepository.findViewById(id);
+    }
+    
+    /**
+     * One page of a project's milestones in sequence order, optionally filtered by status and
+     * due-date range (inclusive).
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPage<MilestoneView> findViewPageByProjectId(Long projectId, Milestone.MilestoneStatus status,
+                                                            LocalDate dueFrom, LocalDate dueTo,
+                                                            String cursor, int limit) {
+        Integer afterSequence = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] keys = PageCursor.decode(cursor, 2);
+            try {
+                afterSequence = Integer.valueOf(keys[0]);
+                afterId = Long.valueOf(keys[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        
+        int pageSize = CursorPage.pageSize(limit);
+        List<MilestoneView> rows = milestoneRepository.findViewPageByProjectId(projectId, status, dueFrom, dueTo,
+                afterSequence, afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, last -> PageCursor.encode(last.getSequenceOrder(), last.getId()));
+    }
+    
+    /**
+     * The most recently updated milestones across the projects visible to the user, with their
+     * project fetched.
+     */
+    public List<Milestone> findRecentForUser(User user, int count) {
+        switch (user.getRole()) {
+            case CLIENT:
+                return milestoneRepository.findRecent(user.getId(), null, Limit.of(count));
+            case MANAGER:
+                return milestoneRepository.findRecent(null, user.getId(), Limit.of(count));
+            case ADMIN:
+                return milestoneRepository.findRecent(null, null, Limit.of(count));
+            default:
+                return List.of();
+        }
+    }
+    
+    /**
+     * Milestones of the projects visible to the user that were updated after {@code since},
+     * oldest change first.
+     */
+    public List<MilestoneView> findViewsChangedSinceForUser(User user, LocalDateTime since, int limit) {
+        switch (user.getRole()) {
+            case CLIENT:
+                return milestoneRepository.findViewsChangedSince(since, user.getId(), null, Limit.of(limit));
+            case MANAGER:
+                return milestoneRepository.findViewsChangedSince(since, null, user.getId(), Limit.of(limit));
+            case ADMIN:
+                return milestoneRepository.findViewsChangedSince(since, null, null, Limit.of(limit));
+            default:
+                return List.of();
+        }
+    }
+    
     public List<Milestone> findByProjectId(Long projectId) {
         Optional<Project> projectOpt = projectService.findById(projectId);
         return projectOpt.map(this::findByProject).orElse(List.of());
     }
     
-    public Milestone updateMilestone(Long id, Milestone milestoneDetails) {
+    public Stream<Milestone> streamByProjectId(Long projectId) {
+        return milestoneRepository.streamByProjectId(projectId);
+    }
+    
+    public Stream<Milestone> streamByClientId(Long clientId) {
+        return milestoneRepository.streamByClientId(clientId);
+    }
+    
+    public Stream<Milestone> streamByManagerId(Long managerId) {
+        return milestoneRepository.streamByManagerId(managerId);
+    }
+    
+    public Stream<Milestone> streamAll() {
+        return milestoneRepository.streamAllWithProject();
+    }
+    
+    /**
+     * Replaces the milestone's editable fields, but only at {@code expectedVersion} (the caller's
+     * If-Match). Every field is overwritten, so the update is never re-applied to a newer version.
+     *
+     * @throws PreconditionRequiredException if there is no expected version
+     * @throws VersionConflictException if the milestone is no longer at the expected version
+     */
+    public Milestone updateMilestone(Long id, Milestone milestoneDetails, Long expectedVersion) {
+        if (expectedVersion == null) {
+            throw new PreconditionRequiredException("If-Match with the milestone's version is required");
+        }
+        return optimisticRetry.execute(false, () -> {
+            Milestone milestone = loadForUpdate(id, expectedVersion);
+            Milestone.MilestoneStatus previousStatus = milestone.getStatus();
+            milestone.setTitle(milestoneDetails.getTitle());
+            milestone.setDescription(milestoneDetails.getDescription());
+            milestone.setStatus(milestoneDetails.getStatus());
+            milestone.setDueDate(milestoneDetails.getDueDate());
+            return saveUpdate(milestone, previousStatus);
+        });
+    }
+    
+    /**
+     * Applies only the non-null fields of {@code changes}, so a status change merges with
+     * concurrent edits of the other fields. A status-only change may come without an
+     * {@code expectedVersion}: it is then applied to the latest version, retrying if another
+     * update commits in between. Any other change needs the version it was based on.
+     *
+     * @throws PreconditionRequiredException if a change other than the status has no expected version
+     * @throws VersionConflictException if the milestone is no longer at the expected version
+     */
+    public Milestone mergeMilestone(Long id, Milestone changes, Long expectedVersion) {
+        if (expectedVersion == null
+                && (changes.getTitle() != null || changes.getDescription() != null || changes.getDueDate() != null)) {
+            throw new PreconditionRequiredException("If-Match with the milestone's version is required to change more than the status");
+        }
+        return optimisticRetry.execute(expectedVersion == null, () -> {
+            Milestone milestone = loadForUpdate(id, expectedVersion);
+            Milestone.MilestoneStatus previousStatus = milestone.getStatus();
+            if (changes.getTitle() != null) {
+                milestone.setTitle(changes.getTitle());
+            }
+            if (changes.getDescription() != null) {
+                milestone.setDescription(changes.getDescription());
+            }
+            if (changes.getStatus() != null) {
+                milestone.setStatus(changes.getStatus());
+            }
+            if (changes.getDueDate() != null) {
+                milestone.setDueDate(changes.getDueDate());
+            }
+            return saveUpdate(milestone, previousStatus);
+        });
+    }
+    
+    private Milestone loadForUpdate(Long id, Long expectedVersion) {
         Milestone milestone = milestoneRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Milestone not found"));
-        
-        milestone.setTitle(milestoneDetails.getTitle());
-        milestone.setDescription(milestoneDetails.getDescription());
-        milestone.setStatus(milestoneDetails.getStatus());
-        milestone.setDueDate(milestoneDetails.getDueDate());
-        
-        return milestoneRepository.save(milestone);
+        if (expectedVersion != null && !expectedVersion.equals(milestone.getVersion())) {
+            throw new VersionConflictException("Milestone was modified by someone else");
+        }
+        return milestone;
+    }
+    
+    // The counter delta is applied only after the flush: the UPDATE matches the row only at the
+    // version previousStatus was read at, so if another update committed in between, the attempt
+    // is rolled back (and retried from a fresh read) before any counter moves
+    private Milestone saveUpdate(Milestone milestone, Milestone.MilestoneStatus previousStatus) {
+        Milestone savedMilestone = milestoneRepository.saveAndFlush(milestone);
+        if (previousStatus != savedMilestone.getStatus()) {
+            adjustCounters(savedMilestone.getProject().getId(), 0, previousStatus, savedMilestone.getStatus());
+        }
+        eventPublisher.publishEvent(ChangeEvent.forMilestone(ChangeEvent.UPDATED, savedMilestone));
+        return savedMilestone;
     }
     
+    /**
+     * Deletes the milestone if it still exists. Like an update, the DELETE is conditional on the
+     * version the status was read at and runs before the counters move; a concurrent update or
+     * delete makes it retry from a fresh read.
+     */
     public void deleteMilestone(Long id) {
-        milestoneRepository.deleteById(id);
+        optimisticRetry.execute(true, () -> {
+            milestoneRepository.findById(id).ifPresent(milestone -> {
+                milestoneRepository.delete(milestone);
+                milestoneRepository.flush();
+                adjustCounters(milestone.getProject().getId(), -1, milestone.getStatus(), null);
+                tombstoneService.recordMilestoneDeleted(milestone);
+                eventPublisher.publishEvent(ChangeEvent.forMilestone(ChangeEvent.DELETED, milestone));
+            });
+            return null;
+        });
     }
     
+    /**
+     * Moves the given milestones, in the given order, to directly after {@code afterId}, or to the
+     * front if it is null; passing every milestone without an anchor sets the whole order. The
+     * moved milestones are spread over the gap between the anchor and the milestone after it, so
+     * only their rows are written. If that gap is too narrow, the project is renumbered in the
+     * same transaction; if what is left of it is getting narrow, the project is queued for
+     * {@link MilestoneOrderRebalanceJob}.
+     *
+     * @throws IllegalArgumentException if an id is repeated, or a milestone or the anchor is not
+     *         in the project
+     */
     @Transactional
-    public void updateMilestoneSequence(Long milestoneId, Integer newSequence) {
-        Milestone milestone = milestoneRepository.findById(milestoneId)
-                .orElseThrow(() -> new RuntimeException("Milestone not found"));
-        
-        List<Milestone> milestones = findByProject(milestone.getProject());
+    public void reorderMilestones(Project project, List<Long> milestoneIds, Long afterId) {
+        Long projectId = project.getId();
+        Set<Long> moved = new HashSet<>(milestoneIds);
+        if (milestoneIds.isEmpty() || moved.size() != milestoneIds.size() || moved.contains(afterId)) {
+            throw new IllegalArgumentException("Milestone ids must be distinct and must not include the anchor");
+        }
+        Integer nextSequence = projectService.lockMilestoneSequences(projectId);
+        if (nextSequence == null) {
+            throw new IllegalArgumentException("Project not found");
+        }
         
-        for (Milestone m : milestones) {
-            if (m.getSequenceOrder().equals(newSequence)) {
-                m.setSequenceOrder(milestone.getSequenceOrder());
-                milestoneRepository.save(m);
-                break;
+        Set<Long> lookedUp = new HashSet<>(moved);
+        if (afterId != null) {
+            lookedUp.add(afterId);
+        }
+        List<MilestonePosition> positions = milestoneRepository.findPositionsByProjectIdAndIdIn(projectId, lookedUp);
+        if (positions.size() != lookedUp.size()) {
+            throw new IllegalArgumentException("Milestone not found in project");
+        }
+        Integer afterSequence = null;
+        for (MilestonePosition position : positions) {
+            if (position.getId().equals(afterId)) {
+                afterSequence = position.getSequenceOrder();
             }
         }
         
-        milestone.setSequenceOrder(newSequence);
-        milestoneRepository.save(milestone);
+        int lower = afterSequence != null ? afterSequence : 0;
+        List<Integer> following = milestoneRepository.findSequenceOrdersAfter(projectId, afterSequence, afterId, moved, Limit.of(1));
+        int upper = following.isEmpty() ? nextSequence : following.get(0);
+        int step = (upper - lower) / (milestoneIds.size() + 1);
+        LocalDateTime now = LocalDateTime.now();
+        if (step < 1) {
+            List<Long> order = new ArrayList<>();
+            milestoneRepository.findPositionsByProjectId(projectId).forEach(position -> order.add(position.getId()));
+            order.removeAll(moved);
+            order.addAll(afterId != null ? order.indexOf(afterId) + 1 : 0, milestoneIds);
+            renumber(projectId, order, now);
+            meterRegistry.counter("milestone-order.rebalances", "trigger", "inline").increment();
+        } else {
+            int sequence = lower;
+            for (Long id : milestoneIds) {
+                sequence += step;
+                milestoneRepository.updateSequenceOrder(id, sequence, now);
+            }
+            if (step < rebalanceBelowGap) {
+                projectsToRebalance.add(projectId);
+            }
+        }
+        eventPublisher.publishEvent(ChangeEvent.forReorder(project));
+    }
+    
+    /**
+     * Spaces the project's milestones {@link Milestone#SEQUENCE_GAP} apart again, keeping their
+     * order. Only milestones whose number changes are written.
+     */
+    @Transactional
+    public void rebalanceOrder(Long projectId) {
+        if (projectService.lockMilestoneSequences(projectId) == null) {
+            return;
+        }
+        respace(projectId, "background");
+    }
+    
+    /**
+     * Takes the projects queued for rebalancing since the last call.
+     */
+    public List<Long> drainProjectsToRebalance() {
+        List<Long> projectIds = new ArrayList<>();
+        for (Iterator<Long> it = projectsToRebalance.iterator(); it.hasNext(); ) {
+            projectIds.add(it.next());
+            it.remove();
+        }
+        return projectIds;
+    }
+    
+    /**
+     * Queues the project again after a failed rebalance.
+     */
+    public void requeueRebalance(Long projectId) {
+        projectsToRebalance.add(projectId);
+    }
+    
+    // Callers hold the project's sequence lock
+    private void respace(Long projectId, String trigger) {
+        List<Long> order = new ArrayList<>();
+        milestoneRepository.findPositionsByProjectId(projectId).forEach(position -> order.add(position.getId()));
+        renumber(projectId, order, LocalDateTime.now());
+        meterRegistry.counter("milestone-order.rebalances", "trigger", trigger).increment();
+    }
+    
+    // Callers hold the project's sequence lock
+    private void renumber(Long projectId, List<Long> order, LocalDateTime updatedAt) {
+        Map<Long, Integer> current = new HashMap<>();
+        milestoneRepository.findPositionsByProjectId(projectId)
+                .forEach(position -> current.put(position.getId(), position.getSequenceOrder()));
+        int sequence = 0;
+        try {
+            for (Long id : order) {
+                sequence = Math.addExact(sequence, Milestone.SEQUENCE_GAP);
+                if (!Integer.valueOf(sequence).equals(current.get(id))) {
+                    milestoneRepository.updateSequenceOrder(id, sequence, updatedAt);
+                }
+            }
+            projectService.resetMilestoneSequences(projectId, Math.addExact(sequence, Milestone.SEQUENCE_GAP));
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("Project has too many milestones to number");
+        }
     }
     
     public long getMilestoneCountByProjectAndStatus(Long projectId, Milestone.MilestoneStatus status) {
         return milestoneRepository.countByProjectAndStatus(projectId, status);
     }
     
+    /**
+     * Milestone counts per status for each of the given projects, from a single grouped query.
+     * Projects without milestones are absent from the result; statuses without milestones are
+     * absent from a project's histogram.
+     */
+    public Map<Long, Map<Milestone.MilestoneStatus, Long>> getStatusHistograms(Collection<Long> projectIds) {
+        Map<Long, Map<Milestone.MilestoneStatus, Long>> histograms = new HashMap<>();
+        for (MilestoneStatusCount count : milestoneRepository.countGroupedByProjectAndStatus(projectIds)) {
+            histograms.computeIfAbsent(count.getProjectId(), id -> new EnumMap<>(Milestone.MilestoneStatus.class))
+                    .put(count.getStatus(), count.getCount());
+        }
+        return histograms;
+    }
+    
+    public VersionStamp getVersionStamp() {
+        return milestoneRepository.getVersionStamp();
+    }
+    
+    public VersionStamp getVersionStampByProjectId(Long projectId) {
+        return milestoneRepository.getVersionStampByProjectId(projectId);
+    }
+    
+    public VersionStamp getVersionStampByClientId(Long clientId) {
+        return milestoneRepository.getVersionStampByClientId(clientId);
+    }
+    
+    public VersionStamp getVersionStampByManagerId(Long managerId) {
+        return milestoneRepository.getVersionStampByManagerId(managerId);
+    }
+    
     public double getProjectProgress(Long projectId) {
-        List<Milestone> milestones = findByProjectId(projectId);
-        if (milestones.isEmpty()) {
-            return 0.0;
+        return projectService.findById(projectId)
+                .map(Project::getProgressPercentage)
+                .orElse(0.0);
+    }
+    
+    /**
+     * Applies a milestone status transition to the owning project's counters.
+     * A null {@code from} means the milestone is new, a null {@code to} means it was removed.
+     */
+    private void adjustCounters(Long projectId, int total, Milestone.MilestoneStatus from, Milestone.MilestoneStatus to) {
+        int[] deltas = new int[Milestone.MilestoneStatus.values().length];
+        if (from != null) {
+            deltas[from.ordinal()]--;
         }
-        
-        long completedCount = milestones.stream()
-                .filter(m -> m.getStatus() == Milestone.MilestoneStatus.COMPLETED)
-                .count();
-        
-        return (double) completedCount / milestones.size() * 100;
+        if (to != null) {
+            deltas[to.ordinal()]++;
+        }
+        projectService.adjustMilestoneCounters(projectId, total,
+                deltas[Milestone.MilestoneStatus.COMPLETED.ordinal()],
+                deltas[Milestone.MilestoneStatus.IN_PROGRESS.ordinal()],
+                deltas[Milestone.MilestoneStatus.NOT_STARTED.ordinal()]);
     }
 }
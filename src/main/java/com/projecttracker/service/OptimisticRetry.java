@@ -0,0 +1,83 @@
+package com.projecttracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write in its own transaction and, for server-side merges, re-runs it when
+ * the {@code @Version} check fails because another transaction committed in between. Each
+ * attempt re-reads the row (the rollback clears the persistence context), so the merge is applied
+ * to the latest state. No row is ever locked; at most {@code optimistic-lock.max-attempts}
+ * attempts are made, with a short random pause between them.
+ */
+@Component
+public class OptimisticRetry {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${optimistic-lock.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${optimistic-lock.backoff-ms:20}")
+    private long backoffMillis;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter retriedCounter;
+    private Counter conflictCounter;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        retriedCounter = Counter.builder("optimistic-lock.retries").register(meterRegistry);
+        conflictCounter = Counter.builder("optimistic-lock.conflicts").register(meterRegistry);
+    }
+
+    /**
+     * Runs the work in a transaction.
+     *
+     * @param retry whether a version conflict may be retried, i.e. the work merges its change into
+     *              whatever is current rather than replacing a version the caller has seen
+     * @throws VersionConflictException on a conflict that is not retried, or persists after the
+     *         last attempt
+     */
+    public <T> T execute(boolean retry, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (VersionConflictException e) {
+                conflictCounter.increment();
+                throw e;
+            } catch (OptimisticLockingFailureException e) {
+                if (!retry || attempt >= maxAttempts) {
+                    conflictCounter.increment();
+                    throw new VersionConflictException("Modified concurrently by another request");
+                }
+                retriedCounter.increment();
+                pause(attempt);
+            }
+        }
+    }
+
+    private void pause(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VersionConflictException("Interrupted while retrying a concurrent modification");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.projecttracker.service;
+
+/**
+ * Thrown when a password cannot be checked because the verification pool is saturated.
+ */
+public class PasswordVerificationRejectedException extends RuntimeException {
+    
+    public PasswordVerificationRejectedException(String message) {
+        super(message);
+    }
+}
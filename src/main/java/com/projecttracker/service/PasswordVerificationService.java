@@ -0,0 +1,131 @@
+package com.projecttracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Checks passwords on a small dedicated pool instead of the servlet threads. bcrypt is deliberately
+ * CPU-bound, so a burst of logins running on the request threads would starve every other request;
+ * here at most {@code workers} hashes run at once, a bounded number wait in the queue, and anything
+ * beyond that (or waiting longer than the timeout) is rejected straight away.
+ *
+ * <p>A matching password whose hash was made with a lower strength than the configured one is
+ * re-hashed in the same task, so raising {@code password.bcrypt.strength} upgrades users as they
+ * log in.
+ *
+ * <p>Metrics: {@code auth.password.verification} (bcrypt time, tagged by result),
+ * {@code auth.password.verification.wait} (time queued), {@code auth.password.verification.queue}
+ * and {@code .active} gauges, and {@code auth.password.verification.rejected} /
+ * {@code auth.password.rehashed} counters.
+ */
+@Service
+public class PasswordVerificationService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${password.verification.workers:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int workers;
+
+    @Value("${password.verification.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${password.verification.timeout-ms:10000}")
+    private long timeoutMillis;
+
+    private ThreadPoolExecutor executor;
+    private Timer matchTimer;
+    private Timer mismatchTimer;
+    private Timer waitTimer;
+    private Counter rejectedCounter;
+    private Counter rehashedCounter;
+
+    /**
+     * Outcome of a check: whether the password matched and, if its hash was upgraded, the new hash
+     * to store (otherwise null).
+     */
+    public record Result(boolean matches, String upgradedHash) {
+    }
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-verify-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        matchTimer = Timer.builder("auth.password.verification").tag("result", "match").register(meterRegistry);
+        mismatchTimer = Timer.builder("auth.password.verification").tag("result", "mismatch").register(meterRegistry);
+        waitTimer = Timer.builder("auth.password.verification.wait").register(meterRegistry);
+        rejectedCounter = Counter.builder("auth.password.verification.rejected").register(meterRegistry);
+        rehashedCounter = Counter.builder("auth.password.rehashed").register(meterRegistry);
+        Gauge.builder("auth.password.verification.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("auth.password.verification.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks the password against the stored hash, blocking until the pool has done so.
+     *
+     * @throws PasswordVerificationRejectedException if the pool is saturated or the check does not
+     *         finish within the timeout
+     */
+    public Result verify(String rawPassword, String encodedPassword) {
+        long queuedAt = System.nanoTime();
+        Future<Result> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                boolean matches = passwordEncoder.matches(rawPassword, encodedPassword);
+                (matches ? matchTimer : mismatchTimer).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                if (matches && passwordEncoder.upgradeEncoding(encodedPassword)) {
+                    rehashedCounter.increment();
+                    return new Result(true, passwordEncoder.encode(rawPassword));
+                }
+                return new Result(matches, null);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordVerificationRejectedException("Too many login attempts in progress, try again shortly");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new PasswordVerificationRejectedException("Login timed out, try again shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordVerificationRejectedException("Login interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password verification failed", e.getCause());
+        }
+    }
+}
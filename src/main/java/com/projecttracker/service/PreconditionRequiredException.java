@@ -0,0 +1,13 @@
+package com.projecttracker.service;
+
+/**
+ * Thrown when an update that would overwrite fields is made without the version it was based on
+ * (no {@code If-Match}). Applied to whatever version is current, it would silently undo a
+ * concurrent edit of those fields.
+ */
+public class PreconditionRequiredException extends RuntimeException {
+
+    public PreconditionRequiredException(String message) {
+        super(message);
+    }
+}
@@ -1,12 +1,32 @@
 package com.projecttracker.service;
 
+import com.projecttracker.dto.CursorPage;
+import com.projecttracker.dto.PageCursor;
+import com.projecttracker.dto.ProjectFilter;
+import com.projecttracker.dto.ProjectStatusSummary;
+import com.projecttracker.dto.StatusCount;
 import com.projecttracker.entity.Project;
 import com.projecttracker.entity.User;
+import com.projecttracker.repository.MilestoneRepository;
 import com.projecttracker.repository.ProjectRepository;
+import com.projecttracker.repository.ProjectVersion;
+import com.projecttracker.repository.VersionStamp;
+import com.projecttracker.service.stream.ChangeEvent;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -15,18 +35,50 @@ public class ProjectService {
     @Autowired
     private ProjectRepository projectRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private TombstoneService tombstoneService;
+    
+    @Autowired
+    private MilestoneRepository milestoneRepository;
+    
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     public Project createProject(Project project) {
-        return projectRepository.save(project);
+        Project savedProject = projectRepository.save(project);
+        eventPublisher.publishEvent(ChangeEvent.forProject(ChangeEvent.CREATED, savedProject));
+        return savedProject;
     }
     
     public Optional<Project> findById(Long id) {
         return projectRepository.findById(id);
     }
     
+    /**
+     * Loads the project together with its client and manager, for callers that render them.
+     */
+    public Optional<Project> findByIdWithUsers(Long id) {
+        return projectRepository.findWithUsersById(id);
+    }
+    
     public List<Project> findAll() {
         return projectRepository.findAll();
     }
     
+    public List<Project> findAllById(Collection<Long> ids) {
+        return projectRepository.findAllById(ids);
+    }
+    
+    public List<Long> findAllIds() {
+        return projectRepository.findAllIds();
+    }
+    
     public List<Project> findByClient(User client) {
         return projectRepository.findByClient(client);
     }
@@ -35,43 +87,257 @@ public class ProjectService {
         return projectRepository.findByManager(manager);
     }
     
+    public List<Project> findAllWithUsers() {
+        return projectRepository.findAllWithUsers();
+    }
+    
+    public List<Project> findByClientWithUsers(User client) {
+        return projectRepository.findByClientWithUsers(client);
+    }
+    
+    public List<Project> findByManagerWithUsers(User manager) {
+        return projectRepository.findByManagerWithUsers(manager);
+    }
+    
     public List<Project> findByStatus(Project.ProjectStatus status) {
         return projectRepository.findByStatus(status);
     }
     
-    public Project updateProject(Long id, Project projectDetails) {
-        Project project = projectRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Project not found"));
-        
-        project.setName(projectDetails.getName());
-        project.setDescription(projectDetails.getDescription());
-        project.setClient(projectDetails.getClient());
-        project.setManager(projectDetails.getManager());
-        project.setStatus(projectDetails.getStatus());
-        project.setStartDate(projectDetails.getStartDate());
-        project.setEndDate(projectDetails.getEndDate());
-        
-        return projectRepository.save(project);
+    /**
+     * Replaces the project's editable fields, but only at {@code expectedVersion} (the caller's
+     * If-Match). Every field is overwritten, so the update is never re-applied to a newer version.
+     *
+     * @throws PreconditionRequiredException if there is no expected version
+     * @throws VersionConflictException if the project is no longer at the expected version
+     */
+    public Project updateProject(Long id, Project projectDetails, Long expectedVersion) {
+        if (expectedVersion == null) {
+            throw new PreconditionRequiredException("If-Match with the project's version is required");
+        }
+        return optimisticRetry.execute(false, () -> {
+            Project project = projectRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Project not found"));
+            if (!expectedVersion.equals(project.getVersion())) {
+                throw new VersionConflictException("Project was modified by someone else");
+            }
+            Long previousClientId = project.getClient() != null ? project.getClient().getId() : null;
+            Long previousManagerId = project.getManager() != null ? project.getManager().getId() : null;
+            
+            project.setName(projectDetails.getName());
+            project.setDescription(projectDetails.getDescription());
+            project.setClient(projectDetails.getClient());
+            project.setManager(projectDetails.getManager());
+            project.setStatus(projectDetails.getStatus());
+            project.setStartDate(projectDetails.getStartDate());
+            project.setEndDate(projectDetails.getEndDate());
+            
+            Project savedProject = projectRepository.saveAndFlush(project);
+            Long clientId = savedProject.getClient() != null ? savedProject.getClient().getId() : null;
+            Long managerId = savedProject.getManager() != null ? savedProject.getManager().getId() : null;
+            if (!Objects.equals(previousClientId, clientId) || !Objects.equals(previousManagerId, managerId)) {
+                // The previous owners drop the project; the new ones need all of its milestones
+                tombstoneService.recordProjectRemoved(id, previousClientId, previousManagerId);
+                milestoneRepository.touchByProjectId(id, LocalDateTime.now());
+            }
+            eventPublisher.publishEvent(ChangeEvent.forProject(ChangeEvent.UPDATED, savedProject, previousClientId, previousManagerId));
+            return savedProject;
+        });
     }
     
+    /**
+     * Deletes the project and, through the cascade, its milestones. Only the project gets a
+     * tombstone; sync clients drop its milestones with it.
+     */
+    @Transactional
     public void deleteProject(Long id) {
+        Optional<Project> project = projectRepository.findById(id);
         projectRepository.deleteById(id);
+        project.ifPresent(p -> {
+            tombstoneService.recordProjectDeleted(p);
+            eventPublisher.publishEvent(ChangeEvent.forProject(ChangeEvent.DELETED, p));
+        });
     }
     
     public List<Project> getProjectsForUser(User user) {
         switch (user.getRole()) {
             case CLIENT:
-                return findByClient(user);
+                return findByClientWithUsers(user);
+            case MANAGER:
+                return findByManagerWithUsers(user);
+            case ADMIN:
+                return findAllWithUsers();
+            default:
+                return List.of();
+        }
+    }
+    
+    /**
+     * One page of the projects visible to the user, most recently updated first. Clients and
+     * managers are always restricted to their own projects, whatever the filter asks for.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPage<Project> findPageForUser(User user, ProjectFilter filter, String cursor, int limit) {
+        switch (user.getRole()) {
+            case CLIENT:
+                if (filter.getClientId() != null && !filter.getClientId().equals(user.getId())) {
+                    return CursorPage.empty();
+                }
+                filter.setClientId(user.getId());
+                break;
+            case MANAGER:
+                if (filter.getManagerId() != null && !filter.getManagerId().equals(user.getId())) {
+                    return CursorPage.empty();
+                }
+                filter.setManagerId(user.getId());
+                break;
+            case ADMIN:
+                break;
+            default:
+                return CursorPage.empty();
+        }
+        
+        LocalDateTime afterUpdatedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] keys = PageCursor.decode(cursor, 2);
+            try {
+                afterUpdatedAt = LocalDateTime.parse(keys[0]);
+                afterId = Long.valueOf(keys[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        
+        int pageSize = CursorPage.pageSize(limit);
+        List<Project> rows = projectRepository.findPage(filter.getStatus(), filter.getClientId(), filter.getManagerId(),
+                filter.getStartFrom(), filter.getStartTo(), afterUpdatedAt, afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, last -> PageCursor.encode(last.getUpdatedAt(), last.getId()));
+    }
+    
+    /**
+     * Reserves the next {@code span} milestone sequence numbers for the project and returns the
+     * first. Two statements on the primary key, whatever the number of milestones; a rolled-back
+     * reservation is undone with the rest of the transaction, so no numbers are skipped.
+     *
+     * @return the first number, or {@code null} if the range would run past
+     *         {@link Integer#MAX_VALUE}; nothing is reserved then
+     */
+    @Transactional
+    public Integer reserveMilestoneSequences(Long projectId, int span) {
+        if (projectRepository.reserveMilestoneSequences(projectId, span, Integer.MAX_VALUE - span) == 0) {
+            if (projectRepository.findNextSequence(projectId) == null) {
+                throw new RuntimeException("Project not found");
+            }
+            return null;
+        }
+        evictCachedProject(projectId);
+        return projectRepository.findNextSequence(projectId) - span;
+    }
+    
+    /**
+     * Locks the project's milestone order until the transaction ends, blocking creates and other
+     * reorders, and returns the next free sequence number (above every milestone's), or
+     * {@code null} if the project does not exist.
+     */
+    @Transactional
+    public Integer lockMilestoneSequences(Long projectId) {
+        return projectRepository.lockNextSequence(projectId);
+    }
+    
+    @Transactional
+    public void resetMilestoneSequences(Long projectId, int nextSequence) {
+        projectRepository.resetNextSequence(projectId, nextSequence);
+        evictCachedProject(projectId);
+    }
+    
+    @Transactional
+    public void adjustMilestoneCounters(Long projectId, int total, int completed, int inProgress, int notStarted) {
+        projectRepository.adjustMilestoneCounters(projectId, total, completed, inProgress, notStarted, LocalDateTime.now());
+        evictCachedProject(projectId);
+    }
+    
+    /**
+     * Evicts the cached copy of one project after a native UPDATE of its row (see
+     * {@link ProjectRepository#PROJECT_ROW_SPACE}). The eviction is repeated when the transaction
+     * completes, so a copy a concurrent reader cached from the pre-update row does not survive.
+     */
+    private void evictCachedProject(Long projectId) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(Project.class, projectId);
+        entityManager.unwrap(SessionImplementor.class).getActionQueue().registerProcess(
+                (success, session) -> cache.evict(Project.class, projectId));
+    }
+    
+    /**
+     * Projects visible to the user that were updated after {@code since}, oldest change first.
+     */
+    public List<Project> findChangedSinceForUser(User user, LocalDateTime since, int limit) {
+        switch (user.getRole()) {
+            case CLIENT:
+                return projectRepository.findChangedSince(since, user.getId(), null, Limit.of(limit));
             case MANAGER:
-                return findByManager(user);
+                return projectRepository.findChangedSince(since, null, user.getId(), Limit.of(limit));
             case ADMIN:
-                return findAll();
+                return projectRepository.findChangedSince(since, null, null, Limit.of(limit));
             default:
                 return List.of();
         }
     }
     
+    /**
+     * Recomputes the milestone counters of the given projects from their milestone rows.
+     */
+    @Transactional
+    public int recomputeMilestoneCounters(Collection<Long> projectIds) {
+        return projectRepository.recomputeMilestoneCounters(projectIds, LocalDateTime.now());
+    }
+    
+    public Optional<ProjectVersion> findVersionById(Long projectId) {
+        return projectRepository.findVersionById(projectId);
+    }
+    
+    public VersionStamp getVersionStamp() {
+        return projectRepository.getVersionStamp();
+    }
+    
+    public VersionStamp getVersionStampById(Long projectId) {
+        return projectRepository.getVersionStampById(projectId);
+    }
+    
+    public VersionStamp getVersionStampByClientId(Long clientId) {
+        return projectRepository.getVersionStampByClientId(clientId);
+    }
+    
+    public VersionStamp getVersionStampByManagerId(Long managerId) {
+        return projectRepository.getVersionStampByManagerId(managerId);
+    }
+    
     public long getProjectCountByStatus(Project.ProjectStatus status) {
         return projectRepository.countByStatus(status);
     }
+    
+    /**
+     * Number of projects per status, every status present, from a single grouped query.
+     */
+    public Map<Project.ProjectStatus, Long> getStatusCounts() {
+        return StatusCount.toMap(Project.ProjectStatus.class, projectRepository.countGroupedByStatus());
+    }
+    
+    /**
+     * Per-status aggregates over the projects visible to the user (see
+     * {@link ProjectRepository#summarizeByStatus}).
+     */
+    public List<ProjectStatusSummary> summarizeByStatusForUser(User user) {
+        switch (user.getRole()) {
+            case CLIENT:
+                return projectRepository.summarizeByStatus(user.getId(), null);
+            case MANAGER:
+                return projectRepository.summarizeByStatus(null, user.getId());
+            case ADMIN:
+                return projectRepository.summarizeByStatus(null, null);
+            default:
+                return List.of();
+        }
+    }
 }
@@ -0,0 +1,137 @@
+package com.projecttracker.service;
+
+import com.projecttracker.dto.MilestoneView;
+import com.projecttracker.dto.PageCursor;
+import com.projecttracker.dto.ProjectMapper;
+import com.projecttracker.dto.SyncDelta;
+import com.projecttracker.dto.TombstoneDTO;
+import com.projecttracker.dto.UserView;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.Tombstone;
+import com.projecttracker.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Delta sync: the projects, milestones (and, for admins, users) visible to a user that changed
+ * after a watermark, plus tombstones for the ones deleted or reassigned away.
+ *
+ * <p>The watermark is the server time at which the previous delta was taken. {@code updatedAt}
+ * is stamped at flush, not at commit, so a row can become visible with a timestamp slightly
+ * before a watermark already handed out; each query therefore reaches back
+ * {@code sync.watermark-overlap-ms} before the watermark, and clients may see a row twice.
+ * A delta larger than {@code sync.max-changes}, or a watermark older than the tombstones kept,
+ * gets a reset instead.
+ */
+@Service
+public class SyncService {
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private MilestoneService milestoneService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TombstoneService tombstoneService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sync.max-changes:1000}")
+    private int maxChanges;
+
+    @Value("${sync.watermark-overlap-ms:5000}")
+    private long overlapMillis;
+
+    /**
+     * Changes visible to the user since the watermark, or a reset if there is no watermark.
+     *
+     * @throws IllegalArgumentException if the watermark is malformed
+     */
+    public SyncDelta getChanges(User user, String watermark) {
+        // Stored timestamps have microsecond precision
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        String nextWatermark = PageCursor.encode(now);
+        if (watermark == null || watermark.isBlank()) {
+            return reset(nextWatermark);
+        }
+
+        LocalDateTime since;
+        try {
+            since = LocalDateTime.parse(PageCursor.decode(watermark, 1)[0]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid watermark");
+        }
+        LocalDateTime from = since.minus(overlapMillis, ChronoUnit.MILLIS);
+        if (from.isBefore(tombstoneService.getHorizon()) || since.isAfter(now)) {
+            return reset(nextWatermark);
+        }
+
+        int fetch = maxChanges + 1;
+        List<Project> projects = projectService.findChangedSinceForUser(user, from, fetch);
+        List<MilestoneView> milestones = milestoneService.findViewsChangedSinceForUser(user, from, fetch);
+        List<UserView> users = user.getRole() == User.Role.ADMIN
+                ? userService.findViewsChangedSince(from, fetch)
+                : List.of();
+        List<Tombstone> tombstones = tombstoneService.findSince(from,
+                user.getRole() == User.Role.CLIENT ? user.getId() : null,
+                user.getRole() == User.Role.MANAGER ? user.getId() : null,
+                fetch);
+        if (projects.size() + milestones.size() + users.size() + tombstones.size() > maxChanges) {
+            return reset(nextWatermark);
+        }
+
+        SyncDelta delta = new SyncDelta();
+        delta.setWatermark(nextWatermark);
+        delta.setProjects(ProjectMapper.toDTOList(projects));
+        delta.setMilestones(milestones);
+        delta.setUsers(users);
+        delta.setDeleted(liveTombstones(tombstones, projects, users));
+        meterRegistry.counter("sync.requests", "result", "delta").increment();
+        return delta;
+    }
+
+    // A project reassigned away from someone and later back (or visible to an admin all along)
+    // has both a tombstone and a current row; the row wins. A project reassigned and then
+    // deleted has two tombstones; the latest is kept.
+    private static List<TombstoneDTO> liveTombstones(List<Tombstone> tombstones, List<Project> projects, List<UserView> users) {
+        Set<Long> projectIds = new HashSet<>();
+        projects.forEach(project -> projectIds.add(project.getId()));
+        Set<Long> userIds = new HashSet<>();
+        users.forEach(user -> userIds.add(user.getId()));
+
+        Map<String, TombstoneDTO> deleted = new LinkedHashMap<>();
+        for (Tombstone tombstone : tombstones) {
+            boolean current = switch (tombstone.getEntityType()) {
+                case PROJECT -> projectIds.contains(tombstone.getEntityId());
+                case USER -> userIds.contains(tombstone.getEntityId());
+                case MILESTONE -> false;
+            };
+            if (!current) {
+                deleted.put(tombstone.getEntityType() + ":" + tombstone.getEntityId(), new TombstoneDTO(tombstone));
+            }
+        }
+        return new ArrayList<>(deleted.values());
+    }
+
+    private SyncDelta reset(String watermark) {
+        meterRegistry.counter("sync.requests", "result", "reset").increment();
+        return SyncDelta.reset(watermark);
+    }
+}
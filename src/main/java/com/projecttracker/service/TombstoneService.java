@@ -0,0 +1,79 @@
+package com.projecttracker.service;
+
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.Tombstone;
+import com.projecttracker.entity.User;
+import com.projecttracker.repository.TombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Records deletions for delta sync, in the caller's transaction, and purges them once they are
+ * older than {@code sync.tombstone-retention-days}. A client whose watermark is older than that
+ * can no longer be told what it missed and has to reload.
+ */
+@Service
+public class TombstoneService {
+
+    private static final Logger log = LoggerFactory.getLogger(TombstoneService.class);
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Value("${sync.tombstone-retention-days:30}")
+    private int retentionDays;
+
+    public void recordProjectDeleted(Project project) {
+        recordProjectRemoved(project.getId(), ownerId(project.getClient()), ownerId(project.getManager()));
+    }
+
+    /**
+     * Records that the project left the view of the given client and manager, either because it
+     * was deleted or because it was reassigned away from them.
+     */
+    public void recordProjectRemoved(Long projectId, Long clientId, Long managerId) {
+        tombstoneRepository.save(new Tombstone(Tombstone.EntityType.PROJECT, projectId, projectId, clientId, managerId));
+    }
+
+    public void recordMilestoneDeleted(Milestone milestone) {
+        Project project = milestone.getProject();
+        tombstoneRepository.save(new Tombstone(Tombstone.EntityType.MILESTONE, milestone.getId(), project.getId(),
+                ownerId(project.getClient()), ownerId(project.getManager())));
+    }
+
+    public void recordUserDeleted(Long userId) {
+        tombstoneRepository.save(new Tombstone(Tombstone.EntityType.USER, userId, null, null, null));
+    }
+
+    public List<Tombstone> findSince(LocalDateTime since, Long clientId, Long managerId, int limit) {
+        return tombstoneRepository.findSince(since, clientId, managerId, Limit.of(limit));
+    }
+
+    /**
+     * Oldest watermark that can still be answered from the tombstones kept.
+     */
+    public LocalDateTime getHorizon() {
+        return LocalDateTime.now().minusDays(retentionDays);
+    }
+
+    @Scheduled(cron = "${sync.tombstone-purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purge() {
+        int purged = tombstoneRepository.deleteOlderThan(getHorizon());
+        log.info("Purged {} tombstones older than {} days", purged, retentionDays);
+    }
+
+    private static Long ownerId(User owner) {
+        return owner != null ? owner.getId() : null;
+    }
+}
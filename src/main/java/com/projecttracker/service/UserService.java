@@ -1,12 +1,21 @@
 package com.projecttracker.service;
 
+import com.projecttracker.dto.CursorPage;
+import com.projecttracker.dto.PageCursor;
+import com.projecttracker.dto.StatusCount;
+import com.projecttracker.dto.UserView;
 import com.projecttracker.entity.User;
 import com.projecttracker.repository.UserRepository;
+import com.projecttracker.repository.VersionStamp;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,6 +27,12 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private PasswordVerificationService passwordVerificationService;
+    
+    @Autowired
+    private TombstoneService tombstoneService;
+    
     public User createUser(User user) {
         if (userRepository.existsByUsername(user.getUsername())) {
             throw new RuntimeException("Username already exists");
@@ -42,12 +57,39 @@ public class UserService {
         return userRepository.findAll();
     }
     
-    public List<User> findAllManagers() {
-        return userRepository.findAllManagers();
+    /**
+     * One page of users in id order, optionally restricted to a role.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPage<UserView> findViewPage(User.Role role, String cursor, int limit) {
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                afterId = Long.valueOf(PageCursor.decode(cursor, 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        
+        int pageSize = CursorPage.pageSize(limit);
+        List<UserView> rows = userRepository.findViewPage(role, afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, last -> PageCursor.encode(last.getId()));
+    }
+    
+    /**
+     * Number of users per role, every role present, from a single grouped query.
+     */
+    public Map<User.Role, Long> getRoleCounts() {
+        return StatusCount.toMap(User.Role.class, userRepository.countGroupedByRole());
+    }
+    
+    public List<UserView> findViewsByRole(User.Role role) {
+        return userRepository.findViewsByRole(role);
     }
     
-    public List<User> findAllClients() {
-        return userRepository.findAllClients();
+    public Optional<UserView> findViewById(Long id) {
+        return userRepository.findViewById(id);
     }
     
     public User updateUser(Long id, User userDetails) {
@@ -65,16 +107,45 @@ public class UserService {
         return userRepository.save(user);
     }
     
+    @Transactional
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        tombstoneService.recordUserDeleted(id);
     }
     
-    public boolean validateUser(String username, String password) {
+    public List<UserView> findViewsChangedSince(LocalDateTime since, int limit) {
+        return userRepository.findViewsChangedSince(since, Limit.of(limit));
+    }
+    
+    public VersionStamp getVersionStamp() {
+        return userRepository.getVersionStamp();
+    }
+    
+    /**
+     * Returns the user if the credentials are valid, with a single lookup by username. The
+     * password is checked on the verification pool; a hash below the configured bcrypt strength
+     * is replaced on success.
+     *
+     * @throws PasswordVerificationRejectedException if the verification pool is saturated
+     */
+    public Optional<User> authenticate(String username, String password) {
         Optional<User> userOpt = findByUsername(username);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            return passwordEncoder.matches(password, user.getPassword());
+        if (userOpt.isEmpty() || password == null) {
+            return Optional.empty();
         }
-        return false;
+        User user = userOpt.get();
+        PasswordVerificationService.Result result = passwordVerificationService.verify(password, user.getPassword());
+        if (!result.matches()) {
+            return Optional.empty();
+        }
+        if (result.upgradedHash() != null) {
+            user.setPassword(result.upgradedHash());
+            user = userRepository.save(user);
+        }
+        return Optional.of(user);
+    }
+    
+    public boolean validateUser(String username, String password) {
+        return authenticate(username, password).isPresent();
     }
 }
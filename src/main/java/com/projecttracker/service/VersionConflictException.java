@@ -0,0 +1,13 @@
+package com.projecttracker.service;
+
+/**
+ * Thrown when an update was based on a version of the row that is no longer current: either the
+ * caller's {@code If-Match} named an older version, or another transaction committed first and
+ * retrying was not allowed or did not help.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,132 @@
+package com.projecttracker.service.report;
+
+import com.projecttracker.service.ProjectService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Builds the admin audit pack: a ZIP with the admin summary plus a PDF and a CSV per project.
+ * Projects are rendered on a bounded pool and written to the archive in completion order; at
+ * most {@code parallelism * 2} rendered projects are held in memory at any time.
+ */
+@Service
+public class ReportBundleService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReportBundleService.class);
+    
+    @Autowired
+    private ReportService reportService;
+    
+    @Autowired
+    private ProjectService projectService;
+    
+    @Value("${report.bundle.parallelism:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int parallelism;
+    
+    private ExecutorService executor;
+    
+    private record BundleEntry(String name, byte[] content) {}
+    
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("report-bundle-"));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public void writeAdminBundle(OutputStream outputStream) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        
+        writeEntry(zip, new BundleEntry(reportService.getReportFilename(ReportType.ADMIN, null),
+                renderPdf(ReportType.ADMIN, null)));
+        
+        CompletionService<List<BundleEntry>> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<List<BundleEntry>>> pending = new ArrayList<>();
+        Iterator<Long> projectIds = projectService.findAllIds().iterator();
+        int maxInFlight = parallelism * 2;
+        int inFlight = 0;
+        
+        try {
+            while (projectIds.hasNext() || inFlight > 0) {
+                while (inFlight < maxInFlight && projectIds.hasNext()) {
+                    Long projectId = projectIds.next();
+                    pending.add(completionService.submit(() -> renderProject(projectId)));
+                    inFlight++;
+                }
+                
+                Future<List<BundleEntry>> done = completionService.take();
+                pending.remove(done);
+                inFlight--;
+                for (BundleEntry entry : done.get()) {
+                    writeEntry(zip, entry);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Bundle generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Bundle generation failed", e.getCause());
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        
+        zip.finish();
+        zip.flush();
+    }
+    
+    private List<BundleEntry> renderProject(Long projectId) {
+        String folder = "projects/project_" + projectId + "/";
+        try {
+            ByteArrayOutputStream csv = new ByteArrayOutputStream();
+            reportService.writeProjectCSV(projectId, csv);
+            return List.of(
+                    new BundleEntry(folder + reportService.getReportFilename(ReportType.PROJECT, projectId),
+                            renderPdf(ReportType.PROJECT, projectId)),
+                    new BundleEntry(folder + reportService.getCSVFilename(ReportType.PROJECT, projectId),
+                            csv.toByteArray()));
+        } catch (Exception e) {
+            // A project deleted mid-export should not abort the whole bundle
+            log.warn("Skipping project {} in admin bundle", projectId, e);
+            return List.of(new BundleEntry(folder + "error.txt",
+                    ("Report could not be generated: " + e.getMessage()).getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+    
+    private byte[] renderPdf(ReportType type, Long targetId) throws IOException {
+        String htmlContent = reportService.buildReportHtml(type, targetId);
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        reportService.convertToPdf(htmlContent, pdf);
+        return pdf.toByteArray();
+    }
+    
+    private void writeEntry(ZipOutputStream zip, BundleEntry entry) throws IOException {
+        zip.putNextEntry(new ZipEntry(entry.name()));
+        zip.write(entry.content());
+        zip.closeEntry();
+    }
+}
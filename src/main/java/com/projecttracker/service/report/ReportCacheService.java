@@ -0,0 +1,305 @@
+package com.projecttracker.service.report;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Disk-backed LRU cache of rendered PDF reports. Entries are addressed by a hash of the report's
+ * data version (see {@link ReportService#getReportVersion}), so any change to the underlying rows
+ * produces a new key and stale entries simply age out. The hash doubles as the ETag.
+ */
+@Service
+public class ReportCacheService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReportCacheService.class);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Renders of one key in a row whose file was evicted before it could be opened
+    private static final int MAX_RENDER_ATTEMPTS = 3;
+    
+    @Autowired
+    private ReportService reportService;
+    
+    @Value("${report.cache.dir:${java.io.tmpdir}/taskroute-report-cache}")
+    private String cacheDir;
+    
+    @Value("${report.cache.max-bytes:268435456}")
+    private long maxBytes;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    @Value("${report.render.parallelism:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int renderParallelism;
+    
+    // Access-ordered, guarded by lock (a ReentrantLock rather than synchronized, which would pin
+    // a virtual thread to its carrier while deleting evicted files)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CacheEntry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<CacheEntry>> inFlight = new ConcurrentHashMap<>();
+    private long totalBytes;
+    private Path cachePath;
+    // Only with virtual threads: PDF conversion is CPU-bound and a virtual thread is never
+    // preempted, so a render running on a request thread would hold a carrier for its whole
+    // duration and stall every other request scheduled on it. Renders go to this platform pool
+    // instead and the request's virtual thread unmounts while it waits.
+    private ExecutorService renderExecutor;
+    
+    private record CacheEntry(String key, Path file, long size, Instant generatedAt) {}
+    
+    private record OpenEntry(CacheEntry entry, FileChannel channel) implements Closeable {
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+    
+    @PostConstruct
+    public void init() throws IOException {
+        cachePath = Files.createDirectories(Paths.get(cacheDir));
+        // Spring only switches to virtual threads on Java 21+ and silently ignores the property below
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; running on platform threads",
+                    Runtime.version().feature());
+            virtualThreads = false;
+        }
+        if (virtualThreads) {
+            renderExecutor = Executors.newFixedThreadPool(renderParallelism, new CustomizableThreadFactory("report-render-"));
+        }
+        
+        // Rebuild the index from a previous run, oldest first so LRU order is roughly preserved
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(cachePath)) {
+            files = stream.collect(Collectors.toList());
+        }
+        files.sort(Comparator.comparingLong(this::lastModifiedMillis));
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (!name.endsWith(".pdf")) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            String key = name.substring(0, name.length() - ".pdf".length());
+            put(new CacheEntry(key, file, Files.size(file), Instant.ofEpochMilli(lastModifiedMillis(file))));
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (renderExecutor != null) {
+            renderExecutor.shutdownNow();
+        }
+    }
+    
+    public void serve(ReportType type, Long targetId, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String key = hash(reportService.getReportVersion(type, targetId));
+        String etag = "\"" + key + "\"";
+        
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", "private, no-cache");
+        if (etag.equals(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        try (OpenEntry opened = openOrRender(key, type, targetId)) {
+            CacheEntry entry = opened.entry();
+            response.setContentType("application/pdf");
+            response.setHeader("Content-Disposition", "attachment; filename=" + reportService.getReportFilename(type, targetId));
+            response.setHeader("X-Report-Generated-At",
+                    DATE_FORMATTER.format(entry.generatedAt().atZone(ZoneId.systemDefault())));
+            response.setDateHeader("Last-Modified", entry.generatedAt().toEpochMilli());
+            response.setContentLengthLong(entry.size());
+            
+            // A buffered copy through the servlet output stream, not sendfile: Tomcat's sendfile
+            // opens the file by name after the request returns, when it may already be evicted
+            InputStream in = Channels.newInputStream(opened.channel());
+            in.transferTo(response.getOutputStream());
+        }
+    }
+    
+    /**
+     * Opens the cached file for the key, rendering it first on a miss. Another request's put() may
+     * evict a freshly rendered file before it is opened; the report is then rendered again.
+     */
+    private OpenEntry openOrRender(String key, ReportType type, Long targetId) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            OpenEntry opened = open(key);
+            if (opened != null) {
+                return opened;
+            }
+            if (attempt > MAX_RENDER_ATTEMPTS) {
+                throw new IOException("Report " + key + " was evicted before it could be sent; raise report.cache.max-bytes");
+            }
+            render(key, type, targetId);
+        }
+    }
+    
+    private void render(String key, ReportType type, Long targetId) throws IOException {
+        // Concurrent misses for the same key share a single render
+        CompletableFuture<CacheEntry> future = new CompletableFuture<>();
+        CompletableFuture<CacheEntry> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            existing.join();
+            return;
+        }
+        try {
+            CacheEntry entry = renderExecutor != null ? renderOnPool(key, type, targetId) : renderToFile(key, type, targetId);
+            put(entry);
+            future.complete(entry);
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+    
+    private CacheEntry renderOnPool(String key, ReportType type, Long targetId) throws IOException {
+        Future<CacheEntry> future = renderExecutor.submit(() -> renderToFile(key, type, targetId));
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering report", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException("Report rendering failed", e.getCause());
+        }
+    }
+    
+    private CacheEntry renderToFile(String key, ReportType type, Long targetId) throws IOException {
+        Instant generatedAt = Instant.now();
+        String htmlContent = reportService.buildReportHtml(type, targetId);
+        
+        Path tmp = Files.createTempFile(cachePath, key, ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                reportService.convertToPdf(htmlContent, out);
+            }
+            Path file = cachePath.resolve(key + ".pdf");
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new CacheEntry(key, file, Files.size(file), generatedAt);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+    
+    /**
+     * Opens the entry's file under the lock, so put() cannot evict and delete it in between. An open
+     * file stays readable after it is deleted, so an eviction while it is being sent is harmless.
+     * Returns null on a miss, dropping an entry whose file has disappeared.
+     */
+    private OpenEntry open(String key) throws IOException {
+        lock.lock();
+        try {
+            CacheEntry entry = index.get(key);
+            if (entry == null) {
+                return null;
+            }
+            try {
+                return new OpenEntry(entry, FileChannel.open(entry.file(), StandardOpenOption.READ));
+            } catch (NoSuchFileException e) {
+                index.remove(key);
+                totalBytes -= entry.size();
+                return null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void put(CacheEntry entry) {
+        lock.lock();
+        try {
+            CacheEntry previous = index.put(entry.key(), entry);
+            if (previous != null) {
+                totalBytes -= previous.size();
+            }
+            totalBytes += entry.size();
+            
+            Iterator<CacheEntry> eldest = index.values().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                CacheEntry evicted = eldest.next();
+                if (evicted == entry) {
+                    continue;
+                }
+                eldest.remove();
+                totalBytes -= evicted.size();
+                try {
+                    Files.deleteIfExists(evicted.file());
+                } catch (IOException e) {
+                    log.warn("Could not delete evicted report {}", evicted.file(), e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private long lastModifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+    
+    private static String hash(String version) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(version.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.projecttracker.service.report;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+public class ReportJob {
+    
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+    
+    private final String id;
+    private final ReportType type;
+    private final Long targetId;
+    private final Long ownerId;
+    private final String filename;
+    private final LocalDateTime createdAt;
+    
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile Path file;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+    
+    public ReportJob(String id, ReportType type, Long targetId, Long ownerId, String filename) {
+        this.id = id;
+        this.type = type;
+        this.targetId = targetId;
+        this.ownerId = ownerId;
+        this.filename = filename;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public boolean isFinished() {
+        return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+    }
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    
+    public ReportType getType() { return type; }
+    
+    public Long getTargetId() { return targetId; }
+    
+    public Long getOwnerId() { return ownerId; }
+    
+    public String getFilename() { return filename; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    
+    public JobStatus getStatus() { return status; }
+    public void setStatus(JobStatus status) { this.status = status; }
+    
+    public Path getFile() { return file; }
+    public void setFile(Path file) { this.file = file; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,19 @@
+package com.projecttracker.service.report;
+
+public class ReportJobRejectedException extends RuntimeException {
+    
+    public enum Reason {
+        QUEUE_FULL, USER_LIMIT
+    }
+    
+    private final Reason reason;
+    
+    public ReportJobRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+    
+    public Reason getReason() {
+        return reason;
+    }
+}
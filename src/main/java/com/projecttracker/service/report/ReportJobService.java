@@ -0,0 +1,156 @@
+package com.projecttracker.service.report;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders PDF reports off the servlet threads. Jobs go into a bounded queue served by a fixed
+ * worker pool; when the queue is full, or a user already has too many jobs in flight, new
+ * submissions are rejected instead of piling up. Finished files are spooled to disk and
+ * removed once they are older than the configured TTL.
+ */
+@Service
+public class ReportJobService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+    
+    @Autowired
+    private ReportService reportService;
+    
+    @Value("${report.jobs.workers:2}")
+    private int workers;
+    
+    @Value("${report.jobs.queue-capacity:20}")
+    private int queueCapacity;
+    
+    @Value("${report.jobs.per-user-limit:2}")
+    private int perUserLimit;
+    
+    @Value("${report.jobs.spool-dir:${java.io.tmpdir}/taskroute-reports}")
+    private String spoolDir;
+    
+    @Value("${report.jobs.ttl-minutes:30}")
+    private long ttlMinutes;
+    
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    // Jobs queued or running per user; a user with none has no entry
+    private final Map<Long, Integer> activeJobsByUser = new ConcurrentHashMap<>();
+    
+    private ThreadPoolExecutor executor;
+    private Path spoolPath;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        spoolPath = Files.createDirectories(Paths.get(spoolDir));
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("report-worker-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public ReportJob submit(ReportType type, Long targetId, Long ownerId) {
+        if (activeJobsByUser.merge(ownerId, 1, Integer::sum) > perUserLimit) {
+            releaseSlot(ownerId);
+            throw new ReportJobRejectedException(ReportJobRejectedException.Reason.USER_LIMIT,
+                    "Too many report jobs in progress, limit is " + perUserLimit);
+        }
+        
+        String id = UUID.randomUUID().toString();
+        ReportJob job = new ReportJob(id, type, targetId, ownerId, reportService.getReportFilename(type, targetId));
+        jobs.put(id, job);
+        
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            releaseSlot(ownerId);
+            throw new ReportJobRejectedException(ReportJobRejectedException.Reason.QUEUE_FULL,
+                    "Report queue is full, try again later");
+        }
+        return job;
+    }
+    
+    public Optional<ReportJob> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+    
+    public int getUsersWithActiveJobs() {
+        return activeJobsByUser.size();
+    }
+    
+    // Count updates go through the map so an entry is removed atomically when it drops to zero
+    private void releaseSlot(Long ownerId) {
+        activeJobsByUser.computeIfPresent(ownerId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+    
+    private void run(ReportJob job) {
+        job.setStatus(ReportJob.JobStatus.RUNNING);
+        Path file = spoolPath.resolve(job.getId() + ".pdf");
+        try {
+            String htmlContent = reportService.buildReportHtml(job.getType(), job.getTargetId());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                reportService.convertToPdf(htmlContent, out);
+            }
+            job.setFile(file);
+            job.setStatus(ReportJob.JobStatus.COMPLETED);
+        } catch (Exception e) {
+            log.warn("Report job {} failed", job.getId(), e);
+            deleteQuietly(file);
+            job.setError(e.getMessage());
+            job.setStatus(ReportJob.JobStatus.FAILED);
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+            releaseSlot(job.getOwnerId());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${report.jobs.cleanup-interval-ms:60000}")
+    public void cleanupExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ttlMinutes);
+        jobs.values().removeIf(job -> {
+            if (job.isFinished() && job.getFinishedAt().isBefore(cutoff)) {
+                if (job.getFile() != null) {
+                    deleteQuietly(job.getFile());
+                }
+                return true;
+            }
+            return false;
+        });
+    }
+    
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled report {}", file, e);
+        }
+    }
+}
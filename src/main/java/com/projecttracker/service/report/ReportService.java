@@ -1,21 +1,37 @@
 package com.projecttracker.service.report;
 
+import com.itextpdf.html2pdf.ConverterProperties;
 import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.html2pdf.resolver.font.DefaultFontProvider;
+import com.itextpdf.layout.font.FontSet;
+import com.itextpdf.styledxmlparser.resolver.font.BasicFontProvider;
 import com.opencsv.CSVWriter;
 import com.projecttracker.entity.Milestone;
 import com.projecttracker.entity.Project;
 import com.projecttracker.entity.User;
+import com.projecttracker.repository.VersionStamp;
 import com.projecttracker.service.MilestoneService;
 import com.projecttracker.service.ProjectService;
 import com.projecttracker.service.UserService;
-import jakarta.servlet.http.HttpServletResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class ReportService {
@@ -29,312 +45,371 @@ public class ReportService {
     @Autowired
     private UserService userService;
     
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
-    public void generateProjectReport(Long projectId, HttpServletResponse response) throws IOException {
-        Project project = projectService.findById(projectId)
-                .orElseThrow(() -> new RuntimeException("Project not found"));
-        
-        List<Milestone> milestones = milestoneService.findByProject(project);
-        
-        String htmlContent = generateProjectReportHtml(project, milestones);
-        
-        response.setContentType("application/pdf");
-        response.setHeader("Content-Disposition", "attachment; filename=project_" + projectId + "_report.pdf");
-        
-        HtmlConverter.convertToPdf(htmlContent, response.getOutputStream());
+    // Layouts are parsed once when the class loads and reused for every report
+    private static final ReportTemplate PROJECT_TEMPLATE = ReportTemplate.load("reports/project-report.html");
+    private static final ReportTemplate PROJECT_ROW_TEMPLATE = ReportTemplate.load("reports/project-report-row.html");
+    private static final ReportTemplate CLIENT_TEMPLATE = ReportTemplate.load("reports/client-report.html");
+    private static final ReportTemplate CLIENT_ROW_TEMPLATE = ReportTemplate.load("reports/client-report-row.html");
+    private static final ReportTemplate MANAGER_TEMPLATE = ReportTemplate.load("reports/manager-report.html");
+    private static final ReportTemplate MANAGER_ROW_TEMPLATE = ReportTemplate.load("reports/manager-report-row.html");
+    private static final ReportTemplate ADMIN_TEMPLATE = ReportTemplate.load("reports/admin-report.html");
+    private static final ReportTemplate ADMIN_ROW_TEMPLATE = ReportTemplate.load("reports/admin-report-row.html");
+    
+    // Font discovery (standard PDF fonts plus the fonts shipped with pdfHTML) happens once
+    private static final String DEFAULT_FONT_FAMILY = "Times";
+    private static final FontSet FONT_SET = new DefaultFontProvider(true, true, false).getFontSet();
+    private static final ConverterProperties CONVERTER_PROPERTIES = new ConverterProperties();
+    
+    /**
+     * Loads the report data and renders it to HTML. Runs in its own read-only transaction so
+     * it can be called from threads without an open session (e.g. report job workers).
+     * Projects are fetched with their client and manager so the row loops issue no extra selects.
+     */
+    @Transactional(readOnly = true)
+    public String buildReportHtml(ReportType type, Long targetId) {
+        switch (type) {
+            case PROJECT: {
+                Project project = projectService.findByIdWithUsers(targetId)
+                        .orElseThrow(() -> new RuntimeException("Project not found"));
+                List<Milestone> milestones = milestoneService.findByProject(project);
+                return generateProjectReportHtml(project, milestones);
+            }
+            case CLIENT: {
+                User client = userService.findById(targetId)
+                        .orElseThrow(() -> new RuntimeException("Client not found"));
+                return generateClientReportHtml(client, projectService.findByClientWithUsers(client));
+            }
+            case MANAGER: {
+                User manager = userService.findById(targetId)
+                        .orElseThrow(() -> new RuntimeException("Manager not found"));
+                return generateManagerReportHtml(manager, projectService.findByManagerWithUsers(manager));
+            }
+            case ADMIN:
+                return generateAdminReportHtml(projectService.findAllWithUsers(), userService.getRoleCounts(),
+                        projectService.getStatusCounts());
+            default:
+                throw new RuntimeException("Unsupported report type: " + type);
+        }
     }
     
-    public void generateClientReport(Long clientId, HttpServletResponse response) throws IOException {
-        User client = userService.findById(clientId)
-                .orElseThrow(() -> new RuntimeException("Client not found"));
-        
-        List<Project> projects = projectService.findByClient(client);
-        
-        String htmlContent = generateClientReportHtml(client, projects);
-        
-        response.setContentType("application/pdf");
-        response.setHeader("Content-Disposition", "attachment; filename=client_" + clientId + "_report.pdf");
-        
-        HtmlConverter.convertToPdf(htmlContent, response.getOutputStream());
+    /**
+     * Describes the current state of every row a report reads. The string changes whenever any of
+     * those rows is inserted, updated or deleted, so it can be used as a cache key for the report.
+     * Users are stamped globally because every report prints client and/or manager names.
+     */
+    @Transactional(readOnly = true)
+    public String getReportVersion(ReportType type, Long targetId) {
+        VersionStamp projects;
+        VersionStamp milestones;
+        switch (type) {
+            case PROJECT:
+                projects = projectService.getVersionStampById(targetId);
+                milestones = milestoneService.getVersionStampByProjectId(targetId);
+                break;
+            case CLIENT:
+                projects = projectService.getVersionStampByClientId(targetId);
+                milestones = milestoneService.getVersionStampByClientId(targetId);
+                break;
+            case MANAGER:
+                projects = projectService.getVersionStampByManagerId(targetId);
+                milestones = milestoneService.getVersionStampByManagerId(targetId);
+                break;
+            default:
+                projects = projectService.getVersionStamp();
+                milestones = milestoneService.getVersionStamp();
+                break;
+        }
+        VersionStamp users = userService.getVersionStamp();
+        return type + ":" + targetId
+                + "|p" + projects.getCount() + "@" + projects.getLastUpdated()
+                + "|m" + milestones.getCount() + "@" + milestones.getLastUpdated()
+                + "|u" + users.getCount() + "@" + users.getLastUpdated();
     }
     
-    public void generateManagerReport(Long managerId, HttpServletResponse response) throws IOException {
-        User manager = userService.findById(managerId)
-                .orElseThrow(() -> new RuntimeException("Manager not found"));
-        
-        List<Project> projects = projectService.findByManager(manager);
-        
-        String htmlContent = generateManagerReportHtml(manager, projects);
-        
-        response.setContentType("application/pdf");
-        response.setHeader("Content-Disposition", "attachment; filename=manager_" + managerId + "_report.pdf");
-        
-        HtmlConverter.convertToPdf(htmlContent, response.getOutputStream());
+    public String getReportFilename(ReportType type, Long targetId) {
+        switch (type) {
+            case PROJECT:
+                return "project_" + targetId + "_report.pdf";
+            case CLIENT:
+                return "client_" + targetId + "_report.pdf";
+            case MANAGER:
+                return "manager_" + targetId + "_report.pdf";
+            default:
+                return "admin_summary_report.pdf";
+        }
     }
     
-    public void generateAdminReport(HttpServletResponse response) throws IOException {
-        List<Project> allProjects = projectService.findAll();
-        List<User> allUsers = userService.findAll();
-        
-        String htmlContent = generateAdminReportHtml(allProjects, allUsers);
-        
-        response.setContentType("application/pdf");
-        response.setHeader("Content-Disposition", "attachment; filename=admin_summary_report.pdf");
-        
-        HtmlConverter.convertToPdf(htmlContent, response.getOutputStream());
+    public void convertToPdf(String htmlContent, OutputStream outputStream) throws IOException {
+        // FontProvider keeps per-document state, so each conversion gets its own provider
+        // over the shared, pre-loaded font set
+        ConverterProperties properties = new ConverterProperties(CONVERTER_PROPERTIES)
+                .setFontProvider(new BasicFontProvider(FONT_SET, DEFAULT_FONT_FAMILY));
+        HtmlConverter.convertToPdf(htmlContent, outputStream, properties);
     }
     
-    private String generateProjectReportHtml(Project project, List<Milestone> milestones) {
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html><html><head><style>");
-        html.append("body { font-family: Arial, sans-serif; margin: 20px; }");
-        html.append("h1 { color: #2c3e50; border-bottom: 2px solid #3498db; padding-bottom: 10px; }");
-        html.append("h2 { color: #34495e; margin-top: 30px; }");
-        html.append("table { width: 100%; border-collapse: collapse; margin: 20px 0; }");
-        html.append("th, td { border: 1px solid #ddd; padding: 12px; text-align: left; }");
-        html.append("th { background-color: #f2f2f2; font-weight: bold; }");
-        html.append(".status-completed { color: #27ae60; font-weight: bold; }");
-        html.append(".status-in-progress { color: #f39c12; font-weight: bold; }");
-        html.append(".status-not-started { color: #95a5a6; font-weight: bold; }");
-        html.append(".progress-bar { width: 100%; height: 20px; background-color: #ecf0f1; border-radius: 10px; }");
-        html.append(".progress-fill { height: 100%; background-color: #3498db; border-radius: 10px; }");
-        html.append("</style></head><body>");
-        
-        // Project Header
-        html.append("<h1>Project Report: ").append(project.getName()).append("</h1>");
-        html.append("<p><strong>Description:</strong> ").append(project.getDescription() != null ? project.getDescription() : "N/A").append("</p>");
-        html.append("<p><strong>Client:</strong> ").append(project.getClient().getUsername()).append("</p>");
-        html.append("<p><strong>Manager:</strong> ").append(project.getManager().getUsername()).append("</p>");
-        html.append("<p><strong>Status:</strong> ").append(project.getStatus()).append("</p>");
-        html.append("<p><strong>Start Date:</strong> ").append(project.getStartDate() != null ? project.getStartDate().toString() : "N/A").append("</p>");
-        html.append("<p><strong>End Date:</strong> ").append(project.getEndDate() != null ? project.getEndDate().toString() : "N/A").append("</p>");
-        
-        // Progress Overview
-        double progress = project.getProgressPercentage();
-        html.append("<h2>Progress Overview</h2>");
-        html.append("<div class='progress-bar'>");
-        html.append("<div class='progress-fill' style='width: ").append(progress).append("%;'></div>");
-        html.append("</div>");
-        html.append("<p>Overall Progress: ").append(String.format("%.1f", progress)).append("%</p>");
-        
-        // Milestones Table
-        html.append("<h2>Milestones</h2>");
-        html.append("<table>");
-        html.append("<tr><th>Sequence</th><th>Title</th><th>Description</th><th>Status</th><th>Due Date</th><th>Completed Date</th></tr>");
-        
+    // The generate*ReportHtml methods are package-private so the JMH benchmarks can drive them
+    // with in-memory entities
+    String generateProjectReportHtml(Project project, List<Milestone> milestones) {
+        return generateProjectReportHtml(project, milestones, PROJECT_TEMPLATE, PROJECT_ROW_TEMPLATE);
+    }
+    
+    // Takes the templates so the benchmark can compare against compiling them on every call
+    String generateProjectReportHtml(Project project, List<Milestone> milestones,
+                                     ReportTemplate template, ReportTemplate rowTemplate) {
+        StringBuilder rows = new StringBuilder();
+        MilestoneTally tally = new MilestoneTally();
+        int position = 0;
         for (Milestone milestone : milestones) {
-            html.append("<tr>");
-            html.append("<td>").append(milestone.getSequenceOrder()).append("</td>");
-            html.append("<td>").append(milestone.getTitle()).append("</td>");
-            html.append("<td>").append(milestone.getDescription() != null ? milestone.getDescription() : "N/A").append("</td>");
-            html.append("<td class='status-").append(milestone.getStatus().name().toLowerCase().replace("_", "-")).append("'>")
-               .append(milestone.getStatus().name().replace("_", " ")).append("</td>");
-            html.append("<td>").append(milestone.getDueDate() != null ? milestone.getDueDate().toString() : "N/A").append("</td>");
-            html.append("<td>").append(milestone.getCompletedAt() != null ? milestone.getCompletedAt().format(DATE_FORMATTER) : "N/A").append("</td>");
-            html.append("</tr>");
+            rowTemplate.render(Map.of(
+                    "sequence", ++position,
+                    "title", milestone.getTitle(),
+                    "description", milestone.getDescription() != null ? milestone.getDescription() : "N/A",
+                    "statusClass", milestone.getStatus().name().toLowerCase().replace("_", "-"),
+                    "status", milestone.getStatus().name().replace("_", " "),
+                    "dueDate", milestone.getDueDate() != null ? milestone.getDueDate().toString() : "N/A",
+                    "completedAt", milestone.getCompletedAt() != null ? milestone.getCompletedAt().format(DATE_FORMATTER) : "N/A"
+            ), rows);
+            tally.add(milestone);
         }
         
-        html.append("</table>");
-        
-        // Summary Statistics
-        long completedCount = milestones.stream().filter(m -> m.getStatus() == Milestone.MilestoneStatus.COMPLETED).count();
-        long inProgressCount = milestones.stream().filter(m -> m.getStatus() == Milestone.MilestoneStatus.IN_PROGRESS).count();
-        long notStartedCount = milestones.stream().filter(m -> m.getStatus() == Milestone.MilestoneStatus.NOT_STARTED).count();
-        
-        html.append("<h2>Summary Statistics</h2>");
-        html.append("<ul>");
-        html.append("<li>Total Milestones: ").append(milestones.size()).append("</li>");
-        html.append("<li>Completed: ").append(completedCount).append("</li>");
-        html.append("<li>In Progress: ").append(inProgressCount).append("</li>");
-        html.append("<li>Not Started: ").append(notStartedCount).append("</li>");
-        html.append("</ul>");
-        
-        html.append("<p><em>Report generated on: ").append(java.time.LocalDateTime.now().format(DATE_FORMATTER)).append("</em></p>");
-        html.append("</body></html>");
-        
-        return html.toString();
+        double progress = project.getProgressPercentage();
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", project.getName());
+        values.put("description", project.getDescription() != null ? project.getDescription() : "N/A");
+        values.put("client", project.getClient().getUsername());
+        values.put("manager", project.getManager().getUsername());
+        values.put("status", project.getStatus());
+        values.put("startDate", project.getStartDate() != null ? project.getStartDate().toString() : "N/A");
+        values.put("endDate", project.getEndDate() != null ? project.getEndDate().toString() : "N/A");
+        values.put("progress", progress);
+        values.put("progressLabel", String.format("%.1f", progress));
+        values.put("rows", rows);
+        values.put("total", tally.total);
+        values.put("completed", tally.completed);
+        values.put("inProgress", tally.inProgress);
+        values.put("notStarted", tally.notStarted);
+        values.put("generatedAt", LocalDateTime.now().format(DATE_FORMATTER));
+        return template.render(values);
     }
     
-    private String generateClientReportHtml(User client, List<Project> projects) {
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html><html><head><style>");
-        html.append("body { font-family: Arial, sans-serif; margin: 20px; }");
-        html.append("h1 { color: #2c3e50; border-bottom: 2px solid #3498db; padding-bottom: 10px; }");
-        html.append("h2 { color: #34495e; margin-top: 30px; }");
-        html.append("table { width: 100%; border-collapse: collapse; margin: 20px 0; }");
-        html.append("th, td { border: 1px solid #ddd; padding: 12px; text-align: left; }");
-        html.append("th { background-color: #f2f2f2; font-weight: bold; }");
-        html.append("</style></head><body>");
-        
-        html.append("<h1>Client Report: ").append(client.getUsername()).append("</h1>");
-        html.append("<p><strong>Email:</strong> ").append(client.getEmail()).append("</p>");
-        html.append("<p><strong>Total Projects:</strong> ").append(projects.size()).append("</p>");
-        
-        html.append("<h2>Projects Overview</h2>");
-        html.append("<table>");
-        html.append("<tr><th>Project Name</th><th>Manager</th><th>Status</th><th>Progress</th><th>Start Date</th><th>End Date</th></tr>");
-        
+    String generateClientReportHtml(User client, List<Project> projects) {
+        StringBuilder rows = new StringBuilder();
         for (Project project : projects) {
-            html.append("<tr>");
-            html.append("<td>").append(project.getName()).append("</td>");
-            html.append("<td>").append(project.getManager().getUsername()).append("</td>");
-            html.append("<td>").append(project.getStatus()).append("</td>");
-            html.append("<td>").append(String.format("%.1f", project.getProgressPercentage())).append("%</td>");
-            html.append("<td>").append(project.getStartDate() != null ? project.getStartDate().toString() : "N/A").append("</td>");
-            html.append("<td>").append(project.getEndDate() != null ? project.getEndDate().toString() : "N/A").append("</td>");
-            html.append("</tr>");
+            renderProjectRow(CLIENT_ROW_TEMPLATE, project, project.getManager(), rows);
         }
-        
-        html.append("</table>");
-        html.append("<p><em>Report generated on: ").append(java.time.LocalDateTime.now().format(DATE_FORMATTER)).append("</em></p>");
-        html.append("</body></html>");
-        
-        return html.toString();
+        return CLIENT_TEMPLATE.render(Map.of(
+                "username", client.getUsername(),
+                "email", client.getEmail(),
+                "projectCount", projects.size(),
+                "rows", rows,
+                "generatedAt", LocalDateTime.now().format(DATE_FORMATTER)));
     }
     
-    private String generateManagerReportHtml(User manager, List<Project> projects) {
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html><html><head><style>");
-        html.append("body { font-family: Arial, sans-serif; margin: 20px; }");
-        html.append("h1 { color: #2c3e50; border-bottom: 2px solid #27ae60; padding-bottom: 10px; }");
-        html.append("h2 { color: #34495e; margin-top: 30px; }");
-        html.append("table { width: 100%; border-collapse: collapse; margin: 20px 0; }");
-        html.append("th, td { border: 1px solid #ddd; padding: 12px; text-align: left; }");
-        html.append("th { background-color: #f2f2f2; font-weight: bold; }");
-        html.append("</style></head><body>");
-        
-        html.append("<h1>Manager Report: ").append(manager.getUsername()).append("</h1>");
-        html.append("<p><strong>Email:</strong> ").append(manager.getEmail()).append("</p>");
-        html.append("<p><strong>Assigned Projects:</strong> ").append(projects.size()).append("</p>");
-        
-        html.append("<h2>Projects Overview</h2>");
-        html.append("<table>");
-        html.append("<tr><th>Project Name</th><th>Client</th><th>Status</th><th>Progress</th><th>Start Date</th><th>End Date</th></tr>");
-        
+    String generateManagerReportHtml(User manager, List<Project> projects) {
+        StringBuilder rows = new StringBuilder();
         for (Project project : projects) {
-            html.append("<tr>");
-            html.append("<td>").append(project.getName()).append("</td>");
-            html.append("<td>").append(project.getClient().getUsername()).append("</td>");
-            html.append("<td>").append(project.getStatus()).append("</td>");
-            html.append("<td>").append(String.format("%.1f", project.getProgressPercentage())).append("%</td>");
-            html.append("<td>").append(project.getStartDate() != null ? project.getStartDate().toString() : "N/A").append("</td>");
-            html.append("<td>").append(project.getEndDate() != null ? project.getEndDate().toString() : "N/A").append("</td>");
-            html.append("</tr>");
+            renderProjectRow(MANAGER_ROW_TEMPLATE, project, project.getClient(), rows);
         }
-        
-        html.append("</table>");
-        html.append("<p><em>Report generated on: ").append(java.time.LocalDateTime.now().format(DATE_FORMATTER)).append("</em></p>");
-        html.append("</body></html>");
-        
-        return html.toString();
+        return MANAGER_TEMPLATE.render(Map.of(
+                "username", manager.getUsername(),
+                "email", manager.getEmail(),
+                "projectCount", projects.size(),
+                "rows", rows,
+                "generatedAt", LocalDateTime.now().format(DATE_FORMATTER)));
     }
     
-    private String generateAdminReportHtml(List<Project> allProjects, List<User> allUsers) {
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html><html><head><style>");
-        html.append("body { font-family: Arial, sans-serif; margin: 20px; }");
-        html.append("h1 { color: #2c3e50; border-bottom: 2px solid #e74c3c; padding-bottom: 10px; }");
-        html.append("h2 { color: #34495e; margin-top: 30px; }");
-        html.append("table { width: 100%; border-collapse: collapse; margin: 20px 0; }");
-        html.append("th, td { border: 1px solid #ddd; padding: 12px; text-align: left; }");
-        html.append("th { background-color: #f2f2f2; font-weight: bold; }");
-        html.append("</style></head><body>");
-        
-        html.append("<h1>Admin Summary Report</h1>");
-        
-        // User Statistics
-        long clientCount = allUsers.stream().filter(u -> u.getRole() == User.Role.CLIENT).count();
-        long managerCount = allUsers.stream().filter(u -> u.getRole() == User.Role.MANAGER).count();
-        long adminCount = allUsers.stream().filter(u -> u.getRole() == User.Role.ADMIN).count();
-        
-        html.append("<h2>User Statistics</h2>");
-        html.append("<ul>");
-        html.append("<li>Total Users: ").append(allUsers.size()).append("</li>");
-        html.append("<li>Clients: ").append(clientCount).append("</li>");
-        html.append("<li>Managers: ").append(managerCount).append("</li>");
-        html.append("<li>Admins: ").append(adminCount).append("</li>");
-        html.append("</ul>");
-        
-        // Project Statistics
-        long planningCount = allProjects.stream().filter(p -> p.getStatus() == Project.ProjectStatus.PLANNING).count();
-        long inProgressCount = allProjects.stream().filter(p -> p.getStatus() == Project.ProjectStatus.IN_PROGRESS).count();
-        long completedCount = allProjects.stream().filter(p -> p.getStatus() == Project.ProjectStatus.COMPLETED).count();
-        long onHoldCount = allProjects.stream().filter(p -> p.getStatus() == Project.ProjectStatus.ON_HOLD).count();
-        
-        html.append("<h2>Project Statistics</h2>");
-        html.append("<ul>");
-        html.append("<li>Total Projects: ").append(allProjects.size()).append("</li>");
-        html.append("<li>Planning: ").append(planningCount).append("</li>");
-        html.append("<li>In Progress: ").append(inProgressCount).append("</li>");
-        html.append("<li>Completed: ").append(completedCount).append("</li>");
-        html.append("<li>On Hold: ").append(onHoldCount).append("</li>");
-        html.append("</ul>");
-        
-        // Projects Table
-        html.append("<h2>All Projects</h2>");
-        html.append("<table>");
-        html.append("<tr><th>Project Name</th><th>Client</th><th>Manager</th><th>Status</th><th>Progress</th></tr>");
-        
+    private void renderProjectRow(ReportTemplate template, Project project, User counterpart, StringBuilder rows) {
+        template.render(Map.of(
+                "name", project.getName(),
+                "counterpart", counterpart.getUsername(),
+                "status", project.getStatus(),
+                "progress", String.format("%.1f", project.getProgressPercentage()),
+                "startDate", project.getStartDate() != null ? project.getStartDate().toString() : "N/A",
+                "endDate", project.getEndDate() != null ? project.getEndDate().toString() : "N/A"
+        ), rows);
+    }
+    
+    /**
+     * Renders the admin summary. The role and status counts come from grouped count queries
+     * (every constant present) rather than from the loaded lists.
+     */
+    String generateAdminReportHtml(List<Project> allProjects, Map<User.Role, Long> roleCounts,
+                                   Map<Project.ProjectStatus, Long> statusCounts) {
+        StringBuilder rows = new StringBuilder();
         for (Project project : allProjects) {
-            html.append("<tr>");
-            html.append("<td>").append(project.getName()).append("</td>");
-            html.append("<td>").append(project.getClient().getUsername()).append("</td>");
-            html.append("<td>").append(project.getManager().getUsername()).append("</td>");
-            html.append("<td>").append(project.getStatus()).append("</td>");
-            html.append("<td>").append(String.format("%.1f", project.getProgressPercentage())).append("%</td>");
-            html.append("</tr>");
+            ADMIN_ROW_TEMPLATE.render(Map.of(
+                    "name", project.getName(),
+                    "client", project.getClient().getUsername(),
+                    "manager", project.getManager().getUsername(),
+                    "status", project.getStatus(),
+                    "progress", String.format("%.1f", project.getProgressPercentage())
+            ), rows);
         }
         
-        html.append("</table>");
-        html.append("<p><em>Report generated on: ").append(java.time.LocalDateTime.now().format(DATE_FORMATTER)).append("</em></p>");
-        html.append("</body></html>");
-        
-        return html.toString();
+        Map<String, Object> values = new HashMap<>();
+        values.put("totalUsers", roleCounts.values().stream().mapToLong(Long::longValue).sum());
+        values.put("clients", roleCounts.getOrDefault(User.Role.CLIENT, 0L));
+        values.put("managers", roleCounts.getOrDefault(User.Role.MANAGER, 0L));
+        values.put("admins", roleCounts.getOrDefault(User.Role.ADMIN, 0L));
+        values.put("totalProjects", statusCounts.values().stream().mapToLong(Long::longValue).sum());
+        values.put("planning", statusCounts.getOrDefault(Project.ProjectStatus.PLANNING, 0L));
+        values.put("inProgress", statusCounts.getOrDefault(Project.ProjectStatus.IN_PROGRESS, 0L));
+        values.put("completed", statusCounts.getOrDefault(Project.ProjectStatus.COMPLETED, 0L));
+        values.put("onHold", statusCounts.getOrDefault(Project.ProjectStatus.ON_HOLD, 0L));
+        values.put("rows", rows);
+        values.put("generatedAt", LocalDateTime.now().format(DATE_FORMATTER));
+        return ADMIN_TEMPLATE.render(values);
     }
     
-    public String generateProjectCSV(Long projectId) {
+    /**
+     * Streams a project's milestones straight into the CSV writer. Rows are read through a
+     * forward-only result stream and detached as soon as they are written, so memory stays flat
+     * regardless of milestone count; the summary counters are accumulated in the same pass.
+     */
+    @Transactional(readOnly = true)
+    public void writeProjectCSV(Long projectId, OutputStream outputStream) throws IOException {
         Project project = projectService.findById(projectId)
                 .orElseThrow(() -> new RuntimeException("Project not found"));
         
-        List<Milestone> milestones = milestoneService.findByProject(project);
+        CSVWriter csvWriter = new CSVWriter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+        csvWriter.writeNext(new String[] {"Sequence", "Title", "Description", "Status", "Due Date", "Completed Date"});
+        
+        MilestoneTally tally = new MilestoneTally();
+        int[] position = {0};
+        try (Stream<Milestone> milestones = milestoneService.streamByProjectId(projectId)) {
+            milestones.forEach(milestone -> {
+                csvWriter.writeNext(milestoneColumns(++position[0], milestone));
+                tally.add(milestone);
+                entityManager.detach(milestone);
+            });
+        }
         
-        try (StringWriter writer = new StringWriter();
-             CSVWriter csvWriter = new CSVWriter(writer)) {
-            
-            // Write header
-            String[] header = {"Sequence", "Title", "Description", "Status", "Due Date", "Completed Date"};
-            csvWriter.writeNext(header);
-            
-            // Write milestone data
-            for (Milestone milestone : milestones) {
-                String[] row = {
-                    milestone.getSequenceOrder().toString(),
-                    milestone.getTitle(),
-                    milestone.getDescription() != null ? milestone.getDescription() : "",
-                    milestone.getStatus().name().replace("_", " "),
-                    milestone.getDueDate() != null ? milestone.getDueDate().toString() : "",
-                    milestone.getCompletedAt() != null ? milestone.getCompletedAt().format(DATE_FORMATTER) : ""
-                };
+        csvWriter.writeNext(new String[] {
+            "SUMMARY",
+            "Total Milestones: " + tally.total,
+            "Completed: " + tally.completed,
+            "In Progress: " + tally.inProgress,
+            "Not Started: " + tally.notStarted,
+            "Progress: " + String.format("%.1f", tally.getProgressPercentage()) + "%"
+        });
+        csvWriter.flush();
+    }
+    
+    /**
+     * Streams one row per milestone across every project in scope: the client's projects, the
+     * manager's projects, or all projects for {@link ReportType#ADMIN}.
+     */
+    @Transactional(readOnly = true)
+    public void writeScopeCSV(ReportType type, Long targetId, OutputStream outputStream) throws IOException {
+        CSVWriter csvWriter = new CSVWriter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+        csvWriter.writeNext(new String[] {"Project", "Client", "Manager", "Project Status",
+            "Sequence", "Title", "Description", "Status", "Due Date", "Completed Date"});
+        
+        MilestoneTally tally = new MilestoneTally();
+        Set<Long> projectIds = new HashSet<>();
+        // Rows arrive grouped by project in milestone order; the position restarts with each project
+        int[] position = {0};
+        Long[] currentProjectId = {null};
+        try (Stream<Milestone> milestones = streamScope(type, targetId)) {
+            milestones.forEach(milestone -> {
+                Project project = milestone.getProject();
+                if (!project.getId().equals(currentProjectId[0])) {
+                    currentProjectId[0] = project.getId();
+                    position[0] = 0;
+                }
+                String[] columns = milestoneColumns(++position[0], milestone);
+                String[] row = new String[4 + columns.length];
+                row[0] = project.getName();
+                row[1] = project.getClient().getUsername();
+                row[2] = project.getManager().getUsername();
+                row[3] = project.getStatus().name().replace("_", " ");
+                System.arraycopy(columns, 0, row, 4, columns.length);
                 csvWriter.writeNext(row);
+                
+                tally.add(milestone);
+                projectIds.add(project.getId());
+                entityManager.detach(milestone);
+            });
+        }
+        
+        csvWriter.writeNext(new String[] {
+            "SUMMARY",
+            "Projects: " + projectIds.size(),
+            "Total Milestones: " + tally.total,
+            "Completed: " + tally.completed,
+            "In Progress: " + tally.inProgress,
+            "Not Started: " + tally.notStarted,
+            "Progress: " + String.format("%.1f", tally.getProgressPercentage()) + "%"
+        });
+        csvWriter.flush();
+    }
+    
+    public String getCSVFilename(ReportType type, Long targetId) {
+        switch (type) {
+            case PROJECT:
+                return "project_" + targetId + "_report.csv";
+            case CLIENT:
+                return "client_" + targetId + "_report.csv";
+            case MANAGER:
+                return "manager_" + targetId + "_report.csv";
+            default:
+                return "admin_summary_report.csv";
+        }
+    }
+    
+    private Stream<Milestone> streamScope(ReportType type, Long targetId) {
+        switch (type) {
+            case CLIENT:
+                return milestoneService.streamByClientId(targetId);
+            case MANAGER:
+                return milestoneService.streamByManagerId(targetId);
+            case ADMIN:
+                return milestoneService.streamAll();
+            default:
+                throw new RuntimeException("Unsupported CSV scope: " + type);
+        }
+    }
+    
+    // Sequence numbers have gaps (see Milestone.SEQUENCE_GAP), so reports show the 1-based position
+    private String[] milestoneColumns(int position, Milestone milestone) {
+        return new String[] {
+            String.valueOf(position),
+            milestone.getTitle(),
+            milestone.getDescription() != null ? milestone.getDescription() : "",
+            milestone.getStatus().name().replace("_", " "),
+            milestone.getDueDate() != null ? milestone.getDueDate().toString() : "",
+            milestone.getCompletedAt() != null ? milestone.getCompletedAt().format(DATE_FORMATTER) : ""
+        };
+    }
+    
+    private static class MilestoneTally {
+        long total;
+        long completed;
+        long inProgress;
+        long notStarted;
+        
+        void add(Milestone milestone) {
+            total++;
+            switch (milestone.getStatus()) {
+                case COMPLETED:
+                    completed++;
+                    break;
+                case IN_PROGRESS:
+                    inProgress++;
+                    break;
+                default:
+                    notStarted++;
+                    break;
             }
-            
-            // Add summary row
-            String[] summary = {
-                "SUMMARY",
-                "Total Milestones: " + milestones.size(),
-                "Completed: " + milestones.stream().filter(m -> m.getStatus() == Milestone.MilestoneStatus.COMPLETED).count(),
-                "In Progress: " + milestones.stream().filter(m -> m.getStatus() == Milestone.MilestoneStatus.IN_PROGRESS).count(),
-                "Not Started: " + milestones.stream().filter(m -> m.getStatus() == Milestone.MilestoneStatus.NOT_STARTED).count(),
-                "Progress: " + String.format("%.1f", project.getProgressPercentage()) + "%"
-            };
-            csvWriter.writeNext(summary);
-            
-            csvWriter.flush();
-            return writer.toString();
-            
-        } catch (IOException e) {
-            throw new RuntimeException("Error generating CSV report", e);
+        }
+        
+        double getProgressPercentage() {
+            return total == 0 ? 0.0 : (double) completed / total * 100;
         }
     }
 }
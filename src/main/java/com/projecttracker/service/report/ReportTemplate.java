@@ -0,0 +1,89 @@
+package com.projecttracker.service.report;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A report layout compiled once into alternating literal and placeholder segments, so rendering
+ * is a single pass of appends with no parsing. {@code {{name}}} is HTML-escaped and
+ * {@code {{{name}}}} is inserted as-is (used for pre-rendered row blocks).
+ * Instances are immutable and safe to share between threads.
+ */
+public final class ReportTemplate {
+    
+    private final String[] literals;
+    private final String[] keys;
+    private final boolean[] raw;
+    
+    private ReportTemplate(String[] literals, String[] keys, boolean[] raw) {
+        this.literals = literals;
+        this.keys = keys;
+        this.raw = raw;
+    }
+    
+    public static ReportTemplate load(String resourcePath) {
+        try (InputStream in = new ClassPathResource(resourcePath).getInputStream()) {
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load report template " + resourcePath, e);
+        }
+    }
+    
+    public static ReportTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<Boolean> raw = new ArrayList<>();
+        
+        int position = 0;
+        while (true) {
+            int start = source.indexOf("{{", position);
+            if (start < 0) {
+                break;
+            }
+            boolean isRaw = source.startsWith("{{{", start);
+            String close = isRaw ? "}}}" : "}}";
+            int nameStart = start + (isRaw ? 3 : 2);
+            int end = source.indexOf(close, nameStart);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + start);
+            }
+            literals.add(source.substring(position, start));
+            keys.add(source.substring(nameStart, end).trim());
+            raw.add(isRaw);
+            position = end + close.length();
+        }
+        literals.add(source.substring(position));
+        
+        boolean[] rawFlags = new boolean[raw.size()];
+        for (int i = 0; i < rawFlags.length; i++) {
+            rawFlags[i] = raw.get(i);
+        }
+        return new ReportTemplate(literals.toArray(new String[0]), keys.toArray(new String[0]), rawFlags);
+    }
+    
+    public void render(Map<String, ?> values, StringBuilder out) {
+        for (int i = 0; i < keys.length; i++) {
+            out.append(literals[i]);
+            Object value = values.get(keys[i]);
+            if (value != null) {
+                String text = value.toString();
+                out.append(raw[i] ? text : HtmlUtils.htmlEscape(text));
+            }
+        }
+        out.append(literals[keys.length]);
+    }
+    
+    public String render(Map<String, ?> values) {
+        StringBuilder out = new StringBuilder();
+        render(values, out);
+        return out.toString();
+    }
+}
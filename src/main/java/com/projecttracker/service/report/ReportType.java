@@ -0,0 +1,5 @@
+package com.projecttracker.service.report;
+
+public enum ReportType {
+    PROJECT, CLIENT, MANAGER, ADMIN
+}
@@ -0,0 +1,103 @@
+package com.projecttracker.service.stream;
+
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A change to a project or milestone, published by the services and pushed to
+ * {@code /api/stream} subscribers once the transaction commits. The audience is the ids of the
+ * users allowed to see it (the project's client and manager, before and after the change);
+ * admins see every event.
+ */
+public class ChangeEvent {
+    
+    public static final String PROJECT = "project";
+    public static final String MILESTONE = "milestone";
+    
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    public static final String REORDERED = "reordered";
+    
+    private final String entity;
+    private final String action;
+    private final Long projectId;
+    private final Long milestoneId;
+    private final String status;
+    private final Set<Long> audience;
+    
+    private ChangeEvent(String entity, String action, Long projectId, Long milestoneId, String status, Set<Long> audience) {
+        this.entity = entity;
+        this.action = action;
+        this.projectId = projectId;
+        this.milestoneId = milestoneId;
+        this.status = status;
+        this.audience = audience;
+    }
+    
+    public static ChangeEvent forMilestone(String action, Milestone milestone) {
+        Project project = milestone.getProject();
+        return new ChangeEvent(MILESTONE, action, project.getId(), milestone.getId(),
+                milestone.getStatus() != null ? milestone.getStatus().name() : null, owners(project));
+    }
+    
+    /**
+     * The order of the project's milestones changed; subscribers reload the whole list.
+     */
+    public static ChangeEvent forReorder(Project project) {
+        return new ChangeEvent(MILESTONE, REORDERED, project.getId(), null, null, owners(project));
+    }
+    
+    /**
+     * @param previousOwnerIds client and manager ids before the change, so users who lost the
+     *                         project still hear about it
+     */
+    public static ChangeEvent forProject(String action, Project project, Long... previousOwnerIds) {
+        Set<Long> audience = owners(project);
+        for (Long id : previousOwnerIds) {
+            if (id != null) {
+                audience.add(id);
+            }
+        }
+        return new ChangeEvent(PROJECT, action, project.getId(), null,
+                project.getStatus() != null ? project.getStatus().name() : null, audience);
+    }
+    
+    private static Set<Long> owners(Project project) {
+        Set<Long> ids = new HashSet<>(4);
+        if (project.getClient() != null) {
+            ids.add(project.getClient().getId());
+        }
+        if (project.getManager() != null) {
+            ids.add(project.getManager().getId());
+        }
+        return ids;
+    }
+    
+    public String getEntity() {
+        return entity;
+    }
+    
+    public String getAction() {
+        return action;
+    }
+    
+    public Long getProjectId() {
+        return projectId;
+    }
+    
+    public Long getMilestoneId() {
+        return milestoneId;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public Set<Long> getAudience() {
+        return audience;
+    }
+}
@@ -0,0 +1,309 @@
+package com.projecttracker.service.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+import com.projecttracker.service.ProjectService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes {@link ChangeEvent}s to {@code /api/stream} subscribers as Server-Sent Events.
+ *
+ * <p>Events are taken after commit, given an id and serialized once on a single dispatcher
+ * thread, kept in a ring buffer of the last {@code change-stream.replay-size} events, and queued
+ * to every subscriber allowed to see them. Each subscriber has a bounded queue drained by a small
+ * writer pool; a subscriber that falls a full queue behind is disconnected and catches up on
+ * reconnect from its {@code Last-Event-ID}. If that id is no longer in the ring buffer (or comes
+ * from an earlier run) the subscriber gets a {@code reset} event and should reload.
+ *
+ * <p>Idle connections get a comment line every {@code change-stream.heartbeat-ms} so proxies
+ * keep them open and dead ones are noticed.
+ */
+@Service
+public class ChangeStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStreamService.class);
+
+    static final String RESET_EVENT = "reset";
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${change-stream.replay-size:1024}")
+    private int replaySize;
+
+    @Value("${change-stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${change-stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${change-stream.retry-ms:3000}")
+    private long retryMillis;
+
+    @Value("${change-stream.writers:4}")
+    private int writers;
+
+    @Value("${change-stream.dispatch-queue-capacity:10000}")
+    private int dispatchQueueCapacity;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Ring buffer and id sequence, guarded by lock. Ids start at the boot time in milliseconds,
+    // so an id remembered from an earlier run falls outside the buffer and triggers a reset.
+    private final ReentrantLock lock = new ReentrantLock();
+    private StreamEntry[] ring;
+    private long firstId;
+    private long nextId;
+
+    private ExecutorService dispatcher;
+    private ExecutorService writerPool;
+    private Counter publishedCounter;
+    private Counter overflowCounter;
+
+    private record StreamEntry(long id, Set<Long> audience, Set<ResponseBodyEmitter.DataWithMediaType> frame) {}
+
+    private static final class Subscriber {
+        private final Long userId;
+        private final boolean admin;
+        private final SseEmitter emitter;
+        // Capped at bufferSize by queued instead of preallocated, so an idle subscriber holds no buffer
+        private final ConcurrentLinkedQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(Long userId, boolean admin, SseEmitter emitter) {
+            this.userId = userId;
+            this.admin = admin;
+            this.emitter = emitter;
+        }
+
+        private boolean canSee(StreamEntry entry) {
+            return admin || entry.audience().contains(userId);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        ring = new StreamEntry[replaySize];
+        firstId = System.currentTimeMillis();
+        nextId = firstId;
+        // A full dispatch queue makes the committing thread do the dispatch rather than drop events
+        dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(dispatchQueueCapacity),
+                new CustomizableThreadFactory("change-stream-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        writerPool = Executors.newFixedThreadPool(writers, new CustomizableThreadFactory("change-stream-writer-"));
+
+        publishedCounter = Counter.builder("change-stream.events").register(meterRegistry);
+        overflowCounter = Counter.builder("change-stream.overflows")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("change-stream.subscribers", subscribers, Set::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        writerPool.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ChangeEvent event) {
+        dispatcher.execute(() -> dispatch(event));
+    }
+
+    /**
+     * Registers a subscriber for the user and, if {@code lastEventId} is given, sends the events
+     * it missed (or a reset if they are no longer available).
+     *
+     * <p>These first frames are sent here rather than queued. Until the controller returns, the
+     * emitter only holds them, and Spring MVC writes them (committing the response) on the request
+     * thread. Sent from a writer thread instead, the first frame could commit the response while
+     * the request thread was still setting headers on it, which now and then lost that stream.
+     */
+    public SseEmitter subscribe(User user, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(user.getId(), user.getRole() == User.Role.ADMIN, emitter);
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+
+        List<Set<ResponseBodyEmitter.DataWithMediaType>> frames = new ArrayList<>();
+        frames.add(SseEmitter.event().reconnectTime(retryMillis).comment("connected").build());
+        lock.lock();
+        try {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                frames.addAll(replay(subscriber, lastEventId));
+            }
+            for (Set<ResponseBodyEmitter.DataWithMediaType> frame : frames) {
+                emitter.send(frame);
+            }
+            subscribers.add(subscriber);
+        } catch (IOException e) {
+            // Not written yet, so nothing can fail to write
+            throw new IllegalStateException(e);
+        } finally {
+            lock.unlock();
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${change-stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, heartbeat);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void dispatch(ChangeEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("action", event.getAction());
+        payload.put("projectId", event.getProjectId());
+        if (event.getMilestoneId() != null) {
+            payload.put("milestoneId", event.getMilestoneId());
+        }
+        payload.put("status", event.getStatus());
+        if (!(ChangeEvent.PROJECT.equals(event.getEntity()) && ChangeEvent.DELETED.equals(event.getAction()))) {
+            projectService.findById(event.getProjectId())
+                    .ifPresent(project -> payload.put("progress", project.getProgressPercentage()));
+        }
+
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize change event for project {}", event.getProjectId(), e);
+            return;
+        }
+
+        lock.lock();
+        try {
+            long id = nextId++;
+            StreamEntry entry = new StreamEntry(id, event.getAudience(),
+                    SseEmitter.event().id(Long.toString(id)).name(event.getEntity()).data(data).build());
+            ring[(int) (id % ring.length)] = entry;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.canSee(entry)) {
+                    enqueue(subscriber, entry.frame());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        publishedCounter.increment();
+    }
+
+    // Caller holds lock
+    private List<Set<ResponseBodyEmitter.DataWithMediaType>> replay(Subscriber subscriber, String lastEventId) {
+        long lastId;
+        try {
+            lastId = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            lastId = -1;
+        }
+        long oldestId = Math.max(firstId, nextId - ring.length);
+        if (lastId < oldestId - 1 || lastId >= nextId) {
+            return List.of(SseEmitter.event().name(RESET_EVENT).data("{}").build());
+        }
+
+        List<Set<ResponseBodyEmitter.DataWithMediaType>> missed = new ArrayList<>();
+        for (long id = lastId + 1; id < nextId; id++) {
+            StreamEntry entry = ring[(int) (id % ring.length)];
+            if (subscriber.canSee(entry)) {
+                missed.add(entry.frame());
+            }
+        }
+        // More than the buffer holds is more than a slow client should be sent at once
+        if (missed.size() >= bufferSize) {
+            return List.of(SseEmitter.event().name(RESET_EVENT).data("{}").build());
+        }
+        return missed;
+    }
+
+    private void enqueue(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (subscriber.queued.incrementAndGet() > bufferSize) {
+            overflowCounter.increment();
+            close(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        subscriber.queue.offer(frame);
+        if (subscriber.draining.compareAndSet(false, true)) {
+            writerPool.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> frame;
+            while (!subscriber.closed && (frame = subscriber.queue.poll()) != null) {
+                subscriber.queued.decrementAndGet();
+                subscriber.emitter.send(frame);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            close(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // A frame queued after the last poll but before the flag was cleared
+        if (!subscriber.closed && !subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            writerPool.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+    }
+}
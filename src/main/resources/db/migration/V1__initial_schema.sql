@@ -0,0 +1,43 @@
+-- Tables as previously created by Hibernate (ddl-auto=update). Databases that already have them are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and start migrating from V2.
+
+CREATE TABLE users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    role ENUM('CLIENT', 'MANAGER', 'ADMIN') NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE projects (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(200) NOT NULL,
+    description TEXT,
+    client_id BIGINT NOT NULL,
+    manager_id BIGINT NOT NULL,
+    status ENUM('PLANNING', 'IN_PROGRESS', 'COMPLETED', 'ON_HOLD') NOT NULL,
+    start_date DATE,
+    end_date DATE,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    CONSTRAINT fk_projects_client FOREIGN KEY (client_id) REFERENCES users (id),
+    CONSTRAINT fk_projects_manager FOREIGN KEY (manager_id) REFERENCES users (id)
+);
+
+CREATE TABLE milestones (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    project_id BIGINT NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    description TEXT,
+    sequence_order INT NOT NULL,
+    status ENUM('NOT_STARTED', 'IN_PROGRESS', 'COMPLETED') NOT NULL,
+    due_date DATE,
+    completed_at DATETIME(6),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    CONSTRAINT fk_milestones_project FOREIGN KEY (project_id) REFERENCES projects (id)
+);
@@ -0,0 +1,19 @@
+-- Indexes for the hot lookups. Each leads with the foreign key, so it also serves the foreign key
+-- constraint (MySQL drops the single-column index it created implicitly for it).
+
+-- findByProjectOrderBySequenceOrder, max(sequence_order) per project, milestone keyset pages
+CREATE INDEX idx_milestones_project_sequence ON milestones (project_id, sequence_order);
+
+-- countByProjectAndStatus, milestone counter recomputation
+CREATE INDEX idx_milestones_project_status ON milestones (project_id, status);
+
+-- findByManager, findByClient, optionally narrowed by status
+CREATE INDEX idx_projects_manager_status ON projects (manager_id, status);
+CREATE INDEX idx_projects_client_status ON projects (client_id, status);
+
+-- countByStatus and the admin status filter. Databases created from the old schema.sql already have
+-- idx_projects_status and idx_users_role on the same columns, hence the different names.
+CREATE INDEX idx_projects_by_status ON projects (status);
+
+-- findViewsByRole, countByRole
+CREATE INDEX idx_users_by_role ON users (role);
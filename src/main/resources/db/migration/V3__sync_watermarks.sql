@@ -0,0 +1,20 @@
+-- Delta sync (GET /api/sync): rows changed after a watermark, and records of deleted rows.
+
+-- updated_at > :since range scans (milestones are then narrowed through their project)
+CREATE INDEX idx_projects_updated_at ON projects (updated_at);
+CREATE INDEX idx_milestones_updated_at ON milestones (updated_at);
+CREATE INDEX idx_users_updated_at ON users (updated_at);
+
+-- One row per deleted project, milestone or user, kept for sync.tombstone-retention-days. The
+-- owners are copied so a tombstone can be scoped like the row it replaces.
+CREATE TABLE tombstones (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity_type ENUM('PROJECT', 'MILESTONE', 'USER') NOT NULL,
+    entity_id BIGINT NOT NULL,
+    project_id BIGINT,
+    client_id BIGINT,
+    manager_id BIGINT,
+    deleted_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_tombstones_deleted_at ON tombstones (deleted_at);
@@ -0,0 +1,4 @@
+-- Optimistic locking: Hibernate checks and increments these on every entity update, so a write
+-- based on a stale read fails instead of overwriting the newer row.
+ALTER TABLE projects ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE milestones ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
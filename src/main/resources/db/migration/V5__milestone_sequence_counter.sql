@@ -0,0 +1,6 @@
+-- Per-project milestone sequence counter: creates reserve sequence numbers by incrementing it in
+-- one UPDATE instead of reading MAX(sequence_order), which let concurrent creates pick the same one.
+ALTER TABLE projects ADD COLUMN next_sequence INT NOT NULL DEFAULT 1;
+
+UPDATE projects p
+SET next_sequence = COALESCE((SELECT MAX(m.sequence_order) FROM milestones m WHERE m.project_id = p.id), 0) + 1;
@@ -0,0 +1,15 @@
+-- Denormalised milestone counters on projects, kept up to date by MilestoneService so dashboards
+-- and progress reads do not count milestones per project. Filled from the existing milestones.
+ALTER TABLE projects ADD COLUMN total_milestones INT NOT NULL DEFAULT 0;
+ALTER TABLE projects ADD COLUMN completed_milestones INT NOT NULL DEFAULT 0;
+ALTER TABLE projects ADD COLUMN in_progress_milestones INT NOT NULL DEFAULT 0;
+ALTER TABLE projects ADD COLUMN not_started_milestones INT NOT NULL DEFAULT 0;
+
+UPDATE projects p
+SET total_milestones = (SELECT COUNT(*) FROM milestones m WHERE m.project_id = p.id),
+    completed_milestones = (SELECT COUNT(*) FROM milestones m
+                            WHERE m.project_id = p.id AND m.status = 'COMPLETED'),
+    in_progress_milestones = (SELECT COUNT(*) FROM milestones m
+                              WHERE m.project_id = p.id AND m.status = 'IN_PROGRESS'),
+    not_started_milestones = (SELECT COUNT(*) FROM milestones m
+                              WHERE m.project_id = p.id AND m.status = 'NOT_STARTED');
@@ -0,0 +1,54 @@
+package com.projecttracker;
+
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+import com.projecttracker.repository.ProjectRepository;
+import com.projecttracker.repository.UserRepository;
+import com.projecttracker.service.MilestoneService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates users, projects and milestones for integration tests. Names are unique per call, so
+ * tests sharing a context do not collide.
+ */
+@Component
+public class TestFixtures {
+
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private MilestoneService milestoneService;
+
+    public User user(User.Role role) {
+        String name = role.name().toLowerCase() + "-" + sequence.incrementAndGet();
+        return userRepository.save(new User(name, "unused", name + "@example.com", role));
+    }
+
+    public Project project(User client, User manager) {
+        return projectRepository.save(new Project("Project " + sequence.incrementAndGet(), null, client, manager));
+    }
+
+    public Project project() {
+        return project(user(User.Role.CLIENT), user(User.Role.MANAGER));
+    }
+
+    public List<Milestone> milestones(Project project, int count) {
+        List<Milestone> milestones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            milestones.add(new Milestone("Milestone " + (i + 1), null, null, project));
+        }
+        return milestoneService.createMilestones(project, milestones);
+    }
+}
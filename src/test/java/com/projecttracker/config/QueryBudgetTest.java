@@ -0,0 +1,97 @@
+package com.projecttracker.config;
+
+import com.projecttracker.TestFixtures;
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.User;
+import com.projecttracker.service.MilestoneService;
+import com.projecttracker.service.ProjectService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "query-count.fail-on-exceed=true",
+        "query-count.threshold=10"
+})
+class QueryBudgetTest {
+
+    @TestConfiguration
+    static class NPlusOneEndpoint {
+
+        @Bean
+        CompletedCountsController completedCountsController() {
+            return new CompletedCountsController();
+        }
+    }
+
+    // One count query per project: the N+1 shape the budget is there to catch
+    @RestController
+    static class CompletedCountsController {
+
+        @Autowired
+        private ProjectService projectService;
+
+        @Autowired
+        private MilestoneService milestoneService;
+
+        @GetMapping("/test/completed-counts")
+        Map<Long, Long> completedCounts() {
+            Map<Long, Long> counts = new HashMap<>();
+            for (Long projectId : projectService.findAllIds()) {
+                counts.put(projectId, milestoneService.getMilestoneCountByProjectAndStatus(projectId,
+                        Milestone.MilestoneStatus.COMPLETED));
+            }
+            return counts;
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void failsRequestThatExceedsItsBudget() {
+        for (int i = 0; i < 12; i++) {
+            fixtures.project();
+        }
+
+        QueryBudgetExceededException e = assertThrows(QueryBudgetExceededException.class,
+                () -> mockMvc.perform(get("/test/completed-counts")));
+        assertEquals("GET /test/completed-counts", e.getEndpoint());
+        assertEquals(10, e.getBudget());
+        assertTrue(e.getStatements() >= 13, "statements: " + e.getStatements());
+    }
+
+    @Test
+    void passesRequestWithinItsBudget() throws Exception {
+        User manager = fixtures.user(User.Role.MANAGER);
+        for (int i = 0; i < 12; i++) {
+            fixtures.project(fixtures.user(User.Role.CLIENT), manager);
+        }
+
+        mockMvc.perform(get("/api/dashboard").sessionAttr("user", manager))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,119 @@
+package com.projecttracker.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projecttracker.TestFixtures;
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+import com.projecttracker.service.MilestoneService;
+import com.projecttracker.service.ProjectService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Full replaces need the version they were based on; only a status-only PATCH may be merged into
+ * whatever version is current.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalUpdateTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MilestoneService milestoneService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Test
+    void milestonePutRequiresIfMatch() throws Exception {
+        Project project = fixtures.project();
+        Milestone milestone = fixtures.milestones(project, 1).get(0);
+        String body = "{\"title\":\"Replaced\",\"status\":\"IN_PROGRESS\"}";
+
+        mockMvc.perform(put("/api/milestones/" + milestone.getId()).sessionAttr("user", project.getManager())
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionRequired());
+        mockMvc.perform(put("/api/milestones/" + milestone.getId()).sessionAttr("user", project.getManager())
+                        .header("If-Match", "*")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionRequired());
+        assertEquals(milestone.getTitle(), milestoneService.findById(milestone.getId()).orElseThrow().getTitle());
+
+        mockMvc.perform(put("/api/milestones/" + milestone.getId()).sessionAttr("user", project.getManager())
+                        .header("If-Match", "\"" + milestone.getVersion() + "\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+        assertEquals("Replaced", milestoneService.findById(milestone.getId()).orElseThrow().getTitle());
+    }
+
+    // The manager dashboard's edit form takes the version from the dashboard's recent milestones
+    @Test
+    void milestoneEditFromDashboardSendsItsVersion() throws Exception {
+        Project project = fixtures.project();
+        Milestone milestone = fixtures.milestones(project, 1).get(0);
+
+        String dashboard = mockMvc.perform(get("/api/dashboard").sessionAttr("user", project.getManager()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode recent = objectMapper.readTree(dashboard).path("recentMilestones").get(0);
+        assertEquals(milestone.getId(), recent.path("id").asLong());
+        assertEquals(milestone.getVersion(), recent.path("version").asLong());
+
+        mockMvc.perform(put("/api/milestones/" + milestone.getId()).sessionAttr("user", project.getManager())
+                        .header("If-Match", "\"" + recent.path("version").asLong() + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Edited\",\"status\":\"IN_PROGRESS\"}"))
+                .andExpect(status().isOk());
+        assertEquals("Edited", milestoneService.findById(milestone.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void milestonePatchWithoutIfMatchIsLimitedToStatus() throws Exception {
+        Project project = fixtures.project();
+        Milestone milestone = fixtures.milestones(project, 1).get(0);
+
+        mockMvc.perform(patch("/api/milestones/" + milestone.getId()).sessionAttr("user", project.getManager())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/milestones/" + milestone.getId()).sessionAttr("user", project.getManager())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"IN_PROGRESS\",\"description\":\"Notes\"}"))
+                .andExpect(status().isPreconditionRequired());
+
+        Milestone current = milestoneService.findById(milestone.getId()).orElseThrow();
+        assertEquals(Milestone.MilestoneStatus.COMPLETED, current.getStatus());
+        assertEquals(milestone.getDescription(), current.getDescription());
+    }
+
+    @Test
+    void projectPutRequiresIfMatch() throws Exception {
+        Project project = fixtures.project();
+        User manager = project.getManager();
+
+        mockMvc.perform(put("/api/projects/" + project.getId()).sessionAttr("user", manager)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Replaced\"}"))
+                .andExpect(status().isPreconditionRequired());
+        assertEquals(project.getName(), projectService.findById(project.getId()).orElseThrow().getName());
+    }
+}
@@ -0,0 +1,195 @@
+package com.projecttracker.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projecttracker.TestFixtures;
+import com.projecttracker.dto.PageCursor;
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+import com.projecttracker.service.ProjectService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/sync: the overlap before the watermark, resets, tombstones for projects reassigned
+ * away, and what each user gets to see.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "sync.max-changes=5",
+        "sync.watermark-overlap-ms=5000",
+        "sync.tombstone-retention-days=30"
+})
+class DeltaSyncTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rowsStampedWithinTheOverlapBeforeTheWatermarkAreIncluded() throws Exception {
+        Project project = fixtures.project();
+        List<Milestone> milestones = fixtures.milestones(project, 2);
+        LocalDateTime now = LocalDateTime.now();
+        // As if flushed before the previous watermark was taken but committed after it
+        setUpdatedAt(milestones.get(0), now.minusSeconds(3));
+        setUpdatedAt(milestones.get(1), now.minusSeconds(10));
+
+        JsonNode delta = sync(project.getManager(), watermark(now.minusSeconds(1)));
+
+        assertFalse(delta.path("reset").asBoolean());
+        Set<Long> milestoneIds = ids(delta.path("milestones"));
+        assertTrue(milestoneIds.contains(milestones.get(0).getId()));
+        assertFalse(milestoneIds.contains(milestones.get(1).getId()));
+    }
+
+    @Test
+    void missingExpiredOrFutureWatermarkGetsAReset() throws Exception {
+        User manager = fixtures.project().getManager();
+
+        JsonNode first = sync(manager, null);
+        assertTrue(first.path("reset").asBoolean());
+        assertTrue(first.path("projects").isEmpty());
+        assertFalse(first.path("watermark").asText().isEmpty());
+
+        assertTrue(sync(manager, watermark(LocalDateTime.now().minusDays(31))).path("reset").asBoolean());
+        assertTrue(sync(manager, watermark(LocalDateTime.now().plusMinutes(5))).path("reset").asBoolean());
+
+        // The reset's watermark syncs normally
+        assertFalse(sync(manager, first.path("watermark").asText()).path("reset").asBoolean());
+
+        mockMvc.perform(get("/api/sync").param("since", "not a watermark!").sessionAttr("user", manager))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deltaLargerThanMaxChangesGetsAReset() throws Exception {
+        String watermark = watermark(LocalDateTime.now());
+        Project large = fixtures.project();
+        fixtures.milestones(large, 5);
+        Project small = fixtures.project();
+        fixtures.milestones(small, 2);
+
+        // One project and five milestones is more than the five changes allowed
+        JsonNode delta = sync(large.getManager(), watermark);
+        assertTrue(delta.path("reset").asBoolean());
+        assertTrue(delta.path("milestones").isEmpty());
+
+        delta = sync(small.getManager(), watermark);
+        assertFalse(delta.path("reset").asBoolean());
+        assertEquals(2, delta.path("milestones").size());
+    }
+
+    @Test
+    void reassignedProjectIsTombstonedForItsPreviousClientOnly() throws Exception {
+        Project project = fixtures.project();
+        Milestone milestone = fixtures.milestones(project, 1).get(0);
+        User previousClient = project.getClient();
+        User newClient = fixtures.user(User.Role.CLIENT);
+        String watermark = watermark(LocalDateTime.now());
+
+        Project details = projectService.findByIdWithUsers(project.getId()).orElseThrow();
+        details.setClient(newClient);
+        projectService.updateProject(project.getId(), details, details.getVersion());
+
+        JsonNode previous = sync(previousClient, watermark);
+        assertFalse(ids(previous.path("projects")).contains(project.getId()));
+        assertFalse(ids(previous.path("milestones")).contains(milestone.getId()));
+        JsonNode tombstone = previous.path("deleted").get(0);
+        assertEquals("PROJECT", tombstone.path("type").asText());
+        assertEquals(project.getId(), tombstone.path("id").asLong());
+
+        // The new client needs the project and all of its milestones, however old
+        JsonNode current = sync(newClient, watermark);
+        assertTrue(ids(current.path("projects")).contains(project.getId()));
+        assertTrue(ids(current.path("milestones")).contains(milestone.getId()));
+        assertTrue(current.path("deleted").isEmpty());
+
+        // The manager kept the project: the current row wins over the reassignment's tombstone
+        JsonNode manager = sync(project.getManager(), watermark);
+        assertTrue(ids(manager.path("projects")).contains(project.getId()));
+        assertFalse(ids(manager.path("deleted")).contains(project.getId()));
+    }
+
+    @Test
+    void deltaOnlyCoversTheUsersOwnProjects() throws Exception {
+        String watermark = watermark(LocalDateTime.now());
+        Project project = fixtures.project();
+        Milestone milestone = fixtures.milestones(project, 1).get(0);
+        User otherClient = fixtures.user(User.Role.CLIENT);
+        User otherManager = fixtures.user(User.Role.MANAGER);
+
+        for (User outsider : List.of(otherClient, otherManager)) {
+            JsonNode delta = sync(outsider, watermark);
+            assertFalse(ids(delta.path("projects")).contains(project.getId()));
+            assertFalse(ids(delta.path("milestones")).contains(milestone.getId()));
+            assertTrue(delta.path("users").isEmpty());
+        }
+        assertTrue(ids(sync(project.getClient(), watermark).path("milestones")).contains(milestone.getId()));
+
+        projectService.deleteProject(project.getId());
+
+        assertTrue(ids(sync(project.getClient(), watermark).path("deleted")).contains(project.getId()));
+        for (User outsider : List.of(otherClient, otherManager)) {
+            assertTrue(sync(outsider, watermark).path("deleted").isEmpty());
+        }
+    }
+
+    private JsonNode sync(User user, String since) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/sync").sessionAttr("user", user);
+        if (since != null) {
+            request.param("since", since);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static String watermark(LocalDateTime time) {
+        return PageCursor.encode(time.truncatedTo(ChronoUnit.MICROS));
+    }
+
+    private void setUpdatedAt(Milestone milestone, LocalDateTime updatedAt) {
+        jdbcTemplate.update("UPDATE milestones SET updated_at = ? WHERE id = ?", updatedAt, milestone.getId());
+    }
+
+    private static Set<Long> ids(JsonNode rows) {
+        Set<Long> ids = new HashSet<>();
+        rows.forEach(row -> ids.add(row.path("id").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,124 @@
+package com.projecttracker.controller;
+
+import com.projecttracker.TestFixtures;
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the SQL statements (X-Query-Count) of the dashboard, project and milestone reads. Each
+ * endpoint is called for a small tenant and one with ten times the projects and milestones, and
+ * must cost exactly the expected number of statements for both. The second-level cache is cleared
+ * before every request, so these are cold-cache counts.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Tenant small;
+    private Tenant large;
+
+    private record Tenant(User manager, User client, List<Project> projects, List<Milestone> milestones) {}
+
+    @BeforeAll
+    void createTenants() {
+        small = tenant(2, 3);
+        large = tenant(20, 30);
+    }
+
+    @Test
+    void dashboard() throws Exception {
+        // Per-status summary and recent milestones
+        assertStatements(2, "/api/dashboard", Tenant::manager, tenant -> "");
+        assertStatements(2, "/api/dashboard", Tenant::client, tenant -> "");
+    }
+
+    @Test
+    void projectListing() throws Exception {
+        // One keyset page with client and manager fetched
+        assertStatements(1, "/api/projects", Tenant::manager, tenant -> "");
+    }
+
+    @Test
+    void projectDetail() throws Exception {
+        assertStatements(2, "/api/projects/", Tenant::manager, tenant -> id(tenant.projects().get(0)));
+    }
+
+    @Test
+    void milestoneListing() throws Exception {
+        assertStatements(2, "/api/milestones/project/", Tenant::manager, tenant -> id(tenant.projects().get(0)));
+    }
+
+    @Test
+    void milestoneProgress() throws Exception {
+        assertStatements(2, "/api/milestones/progress/", Tenant::manager, tenant -> id(tenant.projects().get(0)));
+    }
+
+    @Test
+    void milestoneDetail() throws Exception {
+        assertStatements(2, "/api/milestones/", Tenant::manager, tenant -> id(tenant.milestones().get(0)));
+    }
+
+    private void assertStatements(long expected, String path, Function<Tenant, User> user,
+                                  Function<Tenant, String> suffix) throws Exception {
+        assertEquals(expected, queryCount(path + suffix.apply(small), user.apply(small)), path + " (small tenant)");
+        assertEquals(expected, queryCount(path + suffix.apply(large), user.apply(large)), path + " (large tenant)");
+    }
+
+    private static String id(Project project) {
+        return project.getId().toString();
+    }
+
+    private static String id(Milestone milestone) {
+        return milestone.getId().toString();
+    }
+
+    private long queryCount(String uri, User user) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        String header = mockMvc.perform(get(uri).sessionAttr("user", user))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("X-Query-Count");
+        return Long.parseLong(header);
+    }
+
+    private Tenant tenant(int projectCount, int milestonesPerProject) {
+        User manager = fixtures.user(User.Role.MANAGER);
+        User client = fixtures.user(User.Role.CLIENT);
+        List<Project> projects = new ArrayList<>();
+        List<Milestone> milestones = new ArrayList<>();
+        for (int i = 0; i < projectCount; i++) {
+            Project project = fixtures.project(client, manager);
+            projects.add(project);
+            milestones.addAll(fixtures.milestones(project, milestonesPerProject));
+        }
+        return new Tenant(manager, client, projects, milestones);
+    }
+}
@@ -0,0 +1,132 @@
+package com.projecttracker.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projecttracker.TestFixtures;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+import com.projecttracker.service.ProjectService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A project report, queued, rendered on request or exported as CSV, is only for the project's client, its manager
+ * and admins.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReportAccessTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Test
+    void projectReportIsOnlyForTheProjectsUsers() throws Exception {
+        Project project = fixtures.project();
+        User outsider = fixtures.user(User.Role.CLIENT);
+        User otherManager = fixtures.user(User.Role.MANAGER);
+
+        mockMvc.perform(get("/api/reports/project/" + project.getId()).sessionAttr("user", outsider))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/reports/project/" + project.getId()).sessionAttr("user", otherManager))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/reports/project/" + project.getId()).sessionAttr("user", project.getClient()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void projectCsvIsOnlyForTheProjectsUsers() throws Exception {
+        Project project = fixtures.project();
+        User outsider = fixtures.user(User.Role.MANAGER);
+
+        mockMvc.perform(get("/api/reports/csv/project/" + project.getId()).sessionAttr("user", outsider))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/reports/csv/project/" + project.getId()).sessionAttr("user", project.getManager()))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void projectReportJobIsOnlyForTheProjectsUsers() throws Exception {
+        Project project = fixtures.project();
+        User outsider = fixtures.user(User.Role.CLIENT);
+
+        mockMvc.perform(submitProjectJob(project).sessionAttr("user", outsider))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/reports/jobs").sessionAttr("user", outsider)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"PROJECT\",\"targetId\":" + Long.MAX_VALUE + "}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(submitProjectJob(project).sessionAttr("user", project.getManager()))
+                .andExpect(status().isAccepted());
+    }
+
+    @Test
+    void finishedJobIsNotServedAfterTheProjectIsReassigned() throws Exception {
+        Project project = fixtures.project();
+        User client = project.getClient();
+
+        String submitted = mockMvc.perform(submitProjectJob(project).sessionAttr("user", client))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(submitted).path("jobId").asText();
+        awaitCompleted(jobId, client);
+
+        mockMvc.perform(get("/api/reports/jobs/" + jobId + "/download").sessionAttr("user", client))
+                .andExpect(status().isOk());
+
+        Project details = projectService.findByIdWithUsers(project.getId()).orElseThrow();
+        details.setClient(fixtures.user(User.Role.CLIENT));
+        projectService.updateProject(project.getId(), details, details.getVersion());
+
+        mockMvc.perform(get("/api/reports/jobs/" + jobId + "/download").sessionAttr("user", client))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/reports/jobs/" + jobId).sessionAttr("user", client))
+                .andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletRequestBuilder submitProjectJob(Project project) {
+        return post("/api/reports/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\":\"PROJECT\",\"targetId\":" + project.getId() + "}");
+    }
+
+    private void awaitCompleted(String jobId, User owner) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        String state;
+        do {
+            String body = mockMvc.perform(get("/api/reports/jobs/" + jobId).sessionAttr("user", owner))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode job = objectMapper.readTree(body);
+            state = job.path("status").asText();
+            if (!"COMPLETED".equals(state)) {
+                Thread.sleep(50);
+            }
+        } while (!"COMPLETED".equals(state) && !"FAILED".equals(state) && System.nanoTime() < deadline);
+        assertEquals("COMPLETED", state);
+    }
+}
@@ -0,0 +1,85 @@
+package com.projecttracker.service;
+
+import com.projecttracker.TestFixtures;
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import com.projecttracker.repository.MilestoneRepository;
+import com.projecttracker.repository.ProjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MilestoneCounterConcurrencyTest {
+
+    private static final Milestone.MilestoneStatus[] STATUSES = Milestone.MilestoneStatus.values();
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MilestoneService milestoneService;
+
+    @Autowired
+    private MilestoneRepository milestoneRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Test
+    void countersMatchMilestonesAfterConcurrentStatusChangesAndDeletes() throws Exception {
+        Project project = fixtures.project();
+        List<Milestone> milestones = fixtures.milestones(project, 10);
+        List<Milestone> edited = milestones.subList(0, 8);
+        List<Milestone> deleted = milestones.subList(8, 10);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                Long id = edited.get(i % edited.size()).getId();
+                results.add(pool.submit(() -> {
+                    Milestone changes = new Milestone();
+                    changes.setStatus(STATUSES[ThreadLocalRandom.current().nextInt(STATUSES.length)]);
+                    try {
+                        milestoneService.mergeMilestone(id, changes, null);
+                    } catch (VersionConflictException e) {
+                        // Retries exhausted under contention; the update is rejected as a whole
+                    }
+                }));
+                if (i % 100 == 0) {
+                    // The same milestone deleted twice at once: only one delete may count
+                    Long deletedId = deleted.get(i / 100 % deleted.size()).getId();
+                    results.add(pool.submit(() -> milestoneService.deleteMilestone(deletedId)));
+                    results.add(pool.submit(() -> milestoneService.deleteMilestone(deletedId)));
+                }
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Project reloaded = projectRepository.findById(project.getId()).orElseThrow();
+        assertEquals(edited.size(), reloaded.getTotalMilestones());
+        assertEquals(count(project, Milestone.MilestoneStatus.COMPLETED), reloaded.getCompletedMilestones());
+        assertEquals(count(project, Milestone.MilestoneStatus.IN_PROGRESS), reloaded.getInProgressMilestones());
+        assertEquals(count(project, Milestone.MilestoneStatus.NOT_STARTED), reloaded.getNotStartedMilestones());
+    }
+
+    private int count(Project project, Milestone.MilestoneStatus status) {
+        return (int) milestoneRepository.countByProjectAndStatus(project.getId(), status);
+    }
+}
@@ -0,0 +1,88 @@
+package com.projecttracker.service;
+
+import com.projecttracker.TestFixtures;
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import com.projecttracker.repository.MilestoneRepository;
+import com.projecttracker.repository.MilestonePosition;
+import com.projecttracker.repository.ProjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MilestoneSequenceTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private MilestoneRepository milestoneRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Test
+    void concurrentCreatesGetUniqueContiguousSequences() throws Exception {
+        Project project = fixtures.project();
+
+        int created = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                // Single creates and small batches, interleaved
+                int batch = i % 3 + 1;
+                created += batch;
+                results.add(pool.submit(() -> fixtures.milestones(project, batch)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Integer> sequences = sequences(project);
+        assertEquals(created, sequences.size());
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals((i + 1) * Milestone.SEQUENCE_GAP, sequences.get(i));
+        }
+        assertEquals((sequences.size() + 1) * Milestone.SEQUENCE_GAP, projectRepository.findNextSequence(project.getId()));
+    }
+
+    @Test
+    void createRenumbersProjectWhenCounterRunsOut() {
+        Project project = fixtures.project();
+        fixtures.milestones(project, 3);
+        // As if about two million milestones had been created and deleted
+        projectService.resetMilestoneSequences(project.getId(), Integer.MAX_VALUE - Milestone.SEQUENCE_GAP);
+
+        fixtures.milestones(project, 2);
+
+        List<Integer> sequences = sequences(project);
+        assertEquals(List.of(1024, 2048, 3072, 4096, 5120), sequences);
+        assertEquals(6 * Milestone.SEQUENCE_GAP, projectRepository.findNextSequence(project.getId()));
+    }
+
+    private List<Integer> sequences(Project project) {
+        List<Integer> sequences = new ArrayList<>();
+        for (MilestonePosition position : milestoneRepository.findPositionsByProjectId(project.getId())) {
+            sequences.add(position.getSequenceOrder());
+        }
+        return sequences;
+    }
+}
@@ -0,0 +1,44 @@
+package com.projecttracker.service;
+
+import com.projecttracker.TestFixtures;
+import com.projecttracker.entity.Project;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProjectCacheEvictionTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void milestoneWriteEvictsOnlyItsProject() {
+        Project changed = fixtures.project();
+        Project untouched = fixtures.project();
+        Cache cache = entityManagerFactory.getCache();
+        cache.evictAll();
+        projectService.findById(changed.getId());
+        projectService.findById(untouched.getId());
+        assertTrue(cache.contains(Project.class, untouched.getId()));
+
+        fixtures.milestones(changed, 2);
+
+        // The counter update must not clear the rest of the region, nor leave a stale copy behind
+        assertTrue(cache.contains(Project.class, untouched.getId()));
+        assertEquals(2, projectService.findById(changed.getId()).orElseThrow().getTotalMilestones());
+    }
+}
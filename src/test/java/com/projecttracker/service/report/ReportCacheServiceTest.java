@@ -0,0 +1,69 @@
+package com.projecttracker.service.report;
+
+import com.projecttracker.TestFixtures;
+import com.projecttracker.entity.Project;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A one-byte limit makes every put() evict all other entries, so concurrent requests for
+// different reports keep deleting each other's files
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "report.cache.max-bytes=1",
+        "report.cache.dir=${java.io.tmpdir}/taskroute-test-report-eviction"
+})
+class ReportCacheServiceTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ReportCacheService reportCacheService;
+
+    @Test
+    void servesCompleteReportsWhileConcurrentRendersEvictThem() throws Exception {
+        List<Project> projects = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Project project = fixtures.project();
+            fixtures.milestones(project, 3);
+            projects.add(project);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(12);
+        try {
+            List<Future<MockHttpServletResponse>> results = new ArrayList<>();
+            for (int i = 0; i < 120; i++) {
+                Long projectId = projects.get(i % projects.size()).getId();
+                results.add(pool.submit(() -> {
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    reportCacheService.serve(ReportType.PROJECT, projectId, new MockHttpServletRequest(), response);
+                    return response;
+                }));
+            }
+            for (Future<MockHttpServletResponse> result : results) {
+                MockHttpServletResponse response = result.get();
+                byte[] body = response.getContentAsByteArray();
+                assertEquals(Long.parseLong(response.getHeader("Content-Length")), body.length);
+                assertTrue(new String(body, 0, 5, StandardCharsets.US_ASCII).startsWith("%PDF"));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.projecttracker.service.report;
+
+import com.projecttracker.TestFixtures;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReportJobServiceTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    // Every user who ever requested a report used to keep an entry in the per-user counts
+    @Test
+    void perUserCountIsDroppedWhenTheUsersJobsFinish() throws Exception {
+        Project project = fixtures.project();
+        List<ReportJob> submitted = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            User user = fixtures.user(User.Role.ADMIN);
+            submitted.add(reportJobService.submit(ReportType.PROJECT, project.getId(), user.getId()));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (reportJobService.getUsersWithActiveJobs() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, reportJobService.getUsersWithActiveJobs());
+        for (ReportJob job : submitted) {
+            assertEquals(ReportJob.JobStatus.COMPLETED, job.getStatus());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.projecttracker.service.stream;
+
+import com.projecttracker.TestFixtures;
+import com.projecttracker.entity.Milestone;
+import com.projecttracker.entity.Project;
+import com.projecttracker.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = "change-stream.heartbeat-ms=3600000")
+class ChangeStreamSubscribersTest {
+
+    private static final int SUBSCRIBERS = 10_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ChangeStreamService changeStreamService;
+
+    @Test
+    void oneEventReachesEveryIdleSubscriber() throws Exception {
+        User admin = fixtures.user(User.Role.ADMIN);
+        User outsider = fixtures.user(User.Role.CLIENT);
+        Project project = fixtures.project();
+
+        List<MockHttpServletResponse> streams = new ArrayList<>(SUBSCRIBERS);
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            // Every tenth stream belongs to a user the event is not for
+            User user = i % 10 == 0 ? outsider : admin;
+            streams.add(mockMvc.perform(get("/api/stream").sessionAttr("user", user))
+                    .andExpect(request().asyncStarted())
+                    .andReturn()
+                    .getResponse());
+        }
+        assertEquals(SUBSCRIBERS, changeStreamService.getSubscriberCount());
+
+        Milestone milestone = fixtures.milestones(project, 1).get(0);
+        String payload = "\"milestoneId\":" + milestone.getId();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        int delivered;
+        do {
+            Thread.sleep(50);
+            delivered = 0;
+            for (int i = 0; i < SUBSCRIBERS; i += 10) {
+                for (int j = i + 1; j < i + 10; j++) {
+                    if (streams.get(j).getContentAsString().contains(payload)) {
+                        delivered++;
+                    }
+                }
+            }
+        } while (delivered < SUBSCRIBERS * 9 / 10 && System.nanoTime() < deadline);
+
+        assertEquals(SUBSCRIBERS * 9 / 10, delivered);
+        for (int i = 0; i < SUBSCRIBERS; i += 10) {
+            assertFalse(streams.get(i).getContentAsString().contains(payload));
+        }
+        // Nobody was disconnected on the way
+        assertEquals(SUBSCRIBERS, changeStreamService.getSubscriberCount());
+    }
+}
@@ -1,6 +1,5 @@
--- Create database
-CREATE DATABASE IF NOT EXISTS project_tracker;
-USE project_tracker;
+-- The schema.sql the project shipped before the Flyway migrations (without its CREATE DATABASE and
+-- USE lines), for checking that a database set up from it baselines and migrates cleanly.
 
 -- Users table
 CREATE TABLE users (